@@ -0,0 +1,42 @@
+package br.com.cursoudemy.productapi.benchmark;
+
+import br.com.cursoudemy.productapi.config.interceptor.AuthInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@State(Scope.Benchmark)
+public class AuthInterceptorBenchmark {
+
+    private AuthInterceptor authInterceptor;
+
+    private MockHttpServletRequest publicRequest;
+
+    private MockHttpServletRequest protectedRequest;
+
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup(){
+        var jwtService = BenchmarkFixtures.jwtService(10_000L);
+        authInterceptor = new AuthInterceptor(jwtService);
+        publicRequest = new MockHttpServletRequest("GET", "/api/status");
+        protectedRequest = new MockHttpServletRequest("GET", "/api/product/1001");
+        protectedRequest.addHeader("transactionid", "benchmark-transaction");
+        protectedRequest.addHeader("Authorization", "Bearer " + jwtService.createServiceToken());
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public boolean preHandlePublicUrl(){
+        return authInterceptor.preHandle(publicRequest, response, null);
+    }
+
+    @Benchmark
+    public boolean preHandleProtectedUrl(){
+        return authInterceptor.preHandle(protectedRequest, response, null);
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.cursoudemy.productapi.benchmark;
+
+import br.com.cursoudemy.productapi.modules.category.model.Category;
+import br.com.cursoudemy.productapi.modules.jwt.service.JwtService;
+import br.com.cursoudemy.productapi.modules.produto.model.Product;
+import br.com.cursoudemy.productapi.modules.supplier.model.Supplier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.util.ReflectionUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class BenchmarkFixtures {
+
+    public static final String API_SECRET = "YXV0aC1hcGktc2VjcmV0LWRldi0xMjM0NTY=";
+
+    public static JwtService jwtService(Long tokenCacheMaxSize){
+        var jwtService = new JwtService();
+        setField(jwtService, "apiSecret", API_SECRET);
+        setField(jwtService, "tokenCacheMaxSize", tokenCacheMaxSize);
+        jwtService.init();
+        return jwtService;
+    }
+
+    public static Product product(Integer id){
+        return Product
+                .builder()
+                .id(id)
+                .name("Product " + id)
+                .quantityAvailable(id * 10)
+                .createdAt(LocalDateTime.of(2023, 1, 1, 12, 0))
+                .category(new Category(1001, "Comic books"))
+                .supplier(new Supplier(1001, "Panini Comics"))
+                .build();
+    }
+
+    public static List<Product> products(Integer size){
+        return IntStream
+                .rangeClosed(1, size)
+                .mapToObj(BenchmarkFixtures::product)
+                .collect(Collectors.toList());
+    }
+
+    // Mirrors the Jackson setup Spring Boot applies to the application's ObjectMapper.
+    public static ObjectMapper objectMapper(){
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static void setField(Object target, String name, Object value){
+        var field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,70 @@
+package br.com.cursoudemy.productapi.benchmark;
+
+import br.com.cursoudemy.productapi.ProductApiApplication;
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductQuantityDTO;
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.StockReservationResult;
+import br.com.cursoudemy.productapi.modules.produto.service.StockReservationEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Concurrent reservations of a single product, through the row update path and through the hot product escrow.
+@State(Scope.Benchmark)
+public class HotSkuReservationBenchmark {
+
+    @Param({"false", "true"})
+    private boolean hotSku;
+
+    private ConfigurableApplicationContext context;
+
+    private StockReservationEngine stockReservationEngine;
+
+    private TransactionTemplate transactionTemplate;
+
+    private List<ProductQuantityDTO> products;
+
+    @Setup
+    public void setup(){
+        context = new SpringApplicationBuilder(ProductApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:product-hot-sku-bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.properties.hibernate.hbm2ddl.import_files=benchmark-import.sql",
+                        "spring.jpa.show_sql=false",
+                        "app-config.rabbit.listener.auto-startup=false",
+                        "app-config.outbox.sales-confirmation.relay-enabled=false",
+                        "app-config.sales-projection.enabled=false",
+                        "app-config.stock.hot-sku.enabled=" + hotSku,
+                        "app-config.stock.hot-sku.product-ids=1001",
+                        "app-config.stock.hot-sku.escrow-chunk=1000")
+                .run();
+        stockReservationEngine = context.getBean(StockReservationEngine.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        products = List.of(new ProductQuantityDTO(1001, 1));
+    }
+
+    @TearDown
+    public void tearDown(){
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public StockReservationResult reserve(){
+        return transactionTemplate.execute(status -> stockReservationEngine.reserve(null, products));
+    }
+}
@@ -0,0 +1,42 @@
+package br.com.cursoudemy.productapi.benchmark;
+
+import br.com.cursoudemy.productapi.modules.jwt.dto.JwtResponse;
+import br.com.cursoudemy.productapi.modules.jwt.service.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private JwtService cachedJwtService;
+
+    private String authorization;
+
+    @Setup
+    public void setup(){
+        cachedJwtService = BenchmarkFixtures.jwtService(10_000L);
+        authorization = "Bearer " + cachedJwtService.createServiceToken();
+        cachedJwtService.isAuthorized(authorization);
+    }
+
+    @Benchmark
+    public void isAuthorizedCached(){
+        cachedJwtService.isAuthorized(authorization);
+    }
+
+    // The verification path as it was before the token cache: a new parser and a full signature check per call.
+    @Benchmark
+    public JwtResponse isAuthorizedUncached(){
+        var claims = Jwts
+                .parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(BenchmarkFixtures.API_SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(authorization.split(" ")[1])
+                .getBody();
+        return JwtResponse.getUser(claims);
+    }
+}
@@ -0,0 +1,103 @@
+package br.com.cursoudemy.productapi.benchmark;
+
+import br.com.cursoudemy.productapi.ProductApiApplication;
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductResponse;
+import br.com.cursoudemy.productapi.modules.produto.model.Product;
+import br.com.cursoudemy.productapi.modules.produto.repository.IProductRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// A supplier's product list read as managed entities mapped by ProductResponse.of, against the joined DTO projection.
+// Run with the gc profiler to compare the allocation per list.
+@State(Scope.Benchmark)
+public class ProductListQueryBenchmark {
+
+    private static final Integer SUPPLIER_ID = 1001;
+
+    private static final String ENTITY_QUERY = "SELECT p FROM Product p JOIN FETCH p.category JOIN FETCH p.supplier "
+            + "WHERE p.supplier.id = :supplierId ORDER BY p.id";
+
+    @Param({"100", "1000"})
+    private Integer products;
+
+    private ConfigurableApplicationContext context;
+
+    private IProductRepository iProductRepository;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setup(){
+        context = new SpringApplicationBuilder(ProductApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:product-list-bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.properties.hibernate.hbm2ddl.import_files=benchmark-import.sql",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "spring.jpa.show_sql=false",
+                        "app-config.rabbit.listener.auto-startup=false",
+                        "app-config.outbox.sales-confirmation.relay-enabled=false",
+                        "app-config.sales-projection.enabled=false")
+                .run();
+        iProductRepository = context.getBean(IProductRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+        seed();
+    }
+
+    @TearDown
+    public void tearDown(){
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductResponse> entities(){
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery(ENTITY_QUERY, Product.class)
+                .setParameter("supplierId", SUPPLIER_ID)
+                .getResultStream()
+                .map(ProductResponse::of)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<ProductResponse> projection(){
+        return transactionTemplate.execute(status -> iProductRepository.findResponsesBySupplierId(SUPPLIER_ID));
+    }
+
+    // Every seeded product belongs to supplier 1001, next to the one product benchmark-import.sql gives it.
+    private void seed(){
+        var jdbcTemplate = context.getBean(JdbcTemplate.class);
+        var createdAt = Timestamp.valueOf(LocalDateTime.of(2023, 1, 1, 12, 0));
+        var rows = IntStream
+                .range(0, products)
+                .mapToObj(index -> new Object[]{10000 + index, "Product " + index, SUPPLIER_ID, 1001 + index % 3, 100, createdAt})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate("INSERT INTO PRODUCT (ID, NAME, FK_SUPPLIER, FK_CATEGORY, QUANTITY_AVAILABLE, VERSION, CREATED_AT) "
+                + "VALUES (?, ?, ?, ?, ?, 0, ?)", rows);
+    }
+}
@@ -0,0 +1,49 @@
+package br.com.cursoudemy.productapi.benchmark;
+
+import br.com.cursoudemy.productapi.config.pagination.JsonArrayStreamWriter;
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+public class ProductSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private Integer size;
+
+    private ObjectMapper objectMapper;
+
+    private JsonArrayStreamWriter jsonArrayStreamWriter;
+
+    private List<ProductResponse> products;
+
+    @Setup
+    public void setup(){
+        objectMapper = BenchmarkFixtures.objectMapper();
+        jsonArrayStreamWriter = new JsonArrayStreamWriter(objectMapper);
+        products = BenchmarkFixtures
+                .products(size)
+                .stream()
+                .map(ProductResponse::of)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws IOException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public void streamArray() throws IOException {
+        jsonArrayStreamWriter.write(OutputStream.nullOutputStream(), products.stream());
+    }
+}
@@ -0,0 +1,35 @@
+package br.com.cursoudemy.productapi.benchmark;
+
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductResponse;
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductSalesResponse;
+import br.com.cursoudemy.productapi.modules.produto.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class ResponseMappingBenchmark {
+
+    private Product product;
+
+    private List<String> sales;
+
+    @Setup
+    public void setup(){
+        product = BenchmarkFixtures.product(1001);
+        sales = List.of("64a1f0c2e4b0a1b2c3d4e5f6", "64a1f0c2e4b0a1b2c3d4e5f7", "64a1f0c2e4b0a1b2c3d4e5f8");
+    }
+
+    @Benchmark
+    public ProductResponse productResponseOf(){
+        return ProductResponse.of(product);
+    }
+
+    @Benchmark
+    public ProductSalesResponse productSalesResponseOf(){
+        return ProductSalesResponse.of(product, sales);
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.cursoudemy.productapi.benchmark;
+
+import br.com.cursoudemy.productapi.ProductApiApplication;
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductQuantityDTO;
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.StockReservationResult;
+import br.com.cursoudemy.productapi.modules.produto.repository.IProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+// The set-based reservation behind ProductService.updateStock, against H2 in PostgreSQL mode and without RabbitMQ.
+@State(Scope.Benchmark)
+public class UpdateStockBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private IProductRepository iProductRepository;
+
+    private List<ProductQuantityDTO> products;
+
+    @Setup
+    public void setup(){
+        context = new SpringApplicationBuilder(ProductApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:product-bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.properties.hibernate.hbm2ddl.import_files=benchmark-import.sql",
+                        "spring.jpa.show_sql=false",
+                        "app-config.rabbit.listener.auto-startup=false",
+                        "app-config.outbox.sales-confirmation.relay-enabled=false",
+                        "app-config.sales-projection.enabled=false")
+                .run();
+        iProductRepository = context.getBean(IProductRepository.class);
+        products = List.of(new ProductQuantityDTO(1001, 1), new ProductQuantityDTO(1003, 1));
+    }
+
+    @TearDown
+    public void tearDown(){
+        context.close();
+    }
+
+    @Benchmark
+    public StockReservationResult reserveStock(){
+        return iProductRepository.reserveStock(products);
+    }
+}
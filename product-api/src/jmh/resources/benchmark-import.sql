@@ -0,0 +1,10 @@
+INSERT INTO CATEGORY (ID, DESCRIPTION) VALUES (1001, 'Comic books');
+INSERT INTO CATEGORY (ID, DESCRIPTION) VALUES (1002, 'Movies');
+INSERT INTO CATEGORY (ID, DESCRIPTION) VALUES (1003, 'Books');
+
+INSERT INTO SUPPLIER (ID, NAME) VALUES (1001, 'Panini Comics');
+INSERT INTO SUPPLIER (ID, NAME) VALUES (1002, 'Amazon');
+
+INSERT INTO PRODUCT (ID, NAME, FK_SUPPLIER, FK_CATEGORY, QUANTITY_AVAILABLE, VERSION, CREATED_AT) VALUES (1001, '1984', 1001, 1001, 1000000000, 0, CURRENT_TIMESTAMP);
+INSERT INTO PRODUCT (ID, NAME, FK_SUPPLIER, FK_CATEGORY, QUANTITY_AVAILABLE, VERSION, CREATED_AT) VALUES (1002, 'Interestelar', 1002, 1002, 1000000000, 0, CURRENT_TIMESTAMP);
+INSERT INTO PRODUCT (ID, NAME, FK_SUPPLIER, FK_CATEGORY, QUANTITY_AVAILABLE, VERSION, CREATED_AT) VALUES (1003, 'Harry Potter', 1002, 1003, 1000000000, 0, CURRENT_TIMESTAMP);
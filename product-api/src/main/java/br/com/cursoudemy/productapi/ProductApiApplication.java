@@ -3,8 +3,12 @@ package br.com.cursoudemy.productapi;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableRabbit
+@EnableAsync
+@EnableScheduling
 @SpringBootApplication
 public class ProductApiApplication {
 
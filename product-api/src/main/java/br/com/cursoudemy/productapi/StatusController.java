@@ -1,5 +1,17 @@
 package br.com.cursoudemy.productapi;
 
+import br.com.cursoudemy.productapi.config.cache.CacheStats;
+import br.com.cursoudemy.productapi.config.metrics.QueryDiagnosticsRecorder;
+import br.com.cursoudemy.productapi.config.metrics.QueryDiagnosticsStats;
+import br.com.cursoudemy.productapi.modules.jwt.dto.TokenCacheStats;
+import br.com.cursoudemy.productapi.modules.jwt.service.JwtService;
+import br.com.cursoudemy.productapi.modules.sales.client.ResilientSalesClient;
+import br.com.cursoudemy.productapi.modules.sales.dto.SalesClientStats;
+import br.com.cursoudemy.productapi.modules.sales.dto.SalesConfirmationStats;
+import br.com.cursoudemy.productapi.modules.sales.rabbitmq.SalesConfirmationSender;
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -7,12 +19,24 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Objects;
 
 @RestController
 @RequestMapping("/")
+@RequiredArgsConstructor
 public class StatusController {
 
+    private final SalesConfirmationSender salesConfirmationSender;
+
+    private final JwtService jwtService;
+
+    private final CacheManager cacheManager;
+
+    private final ResilientSalesClient resilientSalesClient;
+
+    private final QueryDiagnosticsRecorder queryDiagnosticsRecorder;
+
     @GetMapping
     public ResponseEntity<HashMap<String, Object>> getApiRootStatus(){
         return ResponseEntity.ok(getSuccessResponse());
@@ -23,6 +47,43 @@ public class StatusController {
         return ResponseEntity.ok(getSuccessResponse());
     }
 
+    @GetMapping("api/status/sales-confirmation")
+    public ResponseEntity<SalesConfirmationStats> getSalesConfirmationStatus(){
+        return ResponseEntity.ok(salesConfirmationSender.getStats());
+    }
+
+    @GetMapping("api/status/sales-client")
+    public ResponseEntity<SalesClientStats> getSalesClientStatus(){
+        return ResponseEntity.ok(resilientSalesClient.getStats());
+    }
+
+    @GetMapping("api/status/jwt-cache")
+    public ResponseEntity<TokenCacheStats> getJwtCacheStatus(){
+        return ResponseEntity.ok(jwtService.getTokenCacheStats());
+    }
+
+    @GetMapping("api/status/queries")
+    public ResponseEntity<QueryDiagnosticsStats> getQueriesStatus(){
+        return ResponseEntity.ok(queryDiagnosticsRecorder.getStats());
+    }
+
+    @GetMapping("api/status/caches")
+    public ResponseEntity<List<CacheStats>> getCachesStatus(){
+        var caches = cacheManager
+                .getCacheNames()
+                .stream()
+                .map(cacheManager::getCache)
+                .filter(cache -> cache != null && cache.getNativeCache() instanceof Cache)
+                .map(cache -> {
+                    var nativeCache = (Cache<?, ?>) cache.getNativeCache();
+                    var stats = nativeCache.stats();
+                    return new CacheStats(cache.getName(), nativeCache.estimatedSize(), stats.hitCount(),
+                            stats.missCount(), stats.hitRate());
+                })
+                .toList();
+        return ResponseEntity.ok(caches);
+    }
+
     private HashMap<String, Object> getSuccessResponse(){
         var response = new HashMap<String, Object>();
 
@@ -1,29 +1,75 @@
 package br.com.cursoudemy.productapi.config;
 
 import br.com.cursoudemy.productapi.modules.sales.client.SalesClient;
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.support.WebClientAdapter;
 import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class HttpInterfaceConfig {
 
+    private static final String SALES_POOL = "sales-api";
+
     @Value("${app-config.services.sales}")
     private String baseUrl;
 
-//    @Bean
-////    public SalesClient salesClient(){
-////        return HttpServiceProxyFactory
-////                .builder(
-////                        WebClientAdapter
-////                                .forClient(WebClient.builder()
-////                                        .baseUrl(baseUrl)
-////                                        .build())
-////                )
-////                .build()
-////                .createClient(SalesClient.class);
-////    }
+    @Value("${app-config.http-client.sales.max-connections}")
+    private Integer maxConnections;
+
+    @Value("${app-config.http-client.sales.pending-acquire-max-count}")
+    private Integer pendingAcquireMaxCount;
+
+    @Value("${app-config.http-client.sales.pending-acquire-timeout}")
+    private Long pendingAcquireTimeout;
+
+    @Value("${app-config.http-client.sales.max-idle-time}")
+    private Long maxIdleTime;
+
+    @Value("${app-config.http-client.sales.connect-timeout}")
+    private Integer connectTimeout;
+
+    @Value("${app-config.http-client.sales.read-timeout}")
+    private Long readTimeout;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider salesConnectionProvider(){
+        return ConnectionProvider
+                .builder(SALES_POOL)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeout))
+                .maxIdleTime(Duration.ofMillis(maxIdleTime))
+                .evictInBackground(Duration.ofMillis(maxIdleTime))
+                .build();
+    }
+
+    @Bean
+    public WebClient salesWebClient(WebClient.Builder webClientBuilder, ConnectionProvider salesConnectionProvider){
+        var httpClient = HttpClient
+                .create(salesConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+                .responseTimeout(Duration.ofMillis(readTimeout));
+        return webClientBuilder
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    @Bean
+    public SalesClient salesClient(WebClient salesWebClient){
+        return HttpServiceProxyFactory
+                .builder(WebClientAdapter.forClient(salesWebClient))
+                .blockTimeout(Duration.ofMillis(readTimeout))
+                .build()
+                .createClient(SalesClient.class);
+    }
 }
@@ -0,0 +1,17 @@
+package br.com.cursoudemy.productapi.config.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStats {
+
+    private String name;
+    private Long size;
+    private Long hits;
+    private Long misses;
+    private Double hitRate;
+}
@@ -0,0 +1,92 @@
+package br.com.cursoudemy.productapi.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(name = "app-config.datasource.replica.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    private static final String PRIMARY_POOL = "primary";
+    private static final String REPLICA_POOL = "replica";
+
+    @Value("${app-config.datasource.primary.maximum-pool-size}")
+    private Integer primaryMaximumPoolSize;
+
+    @Value("${app-config.datasource.replica.url}")
+    private String replicaUrl;
+
+    @Value("${app-config.datasource.replica.username}")
+    private String replicaUsername;
+
+    @Value("${app-config.datasource.replica.password}")
+    private String replicaPassword;
+
+    @Value("${app-config.datasource.replica.maximum-pool-size}")
+    private Integer replicaMaximumPoolSize;
+
+    @Value("${app-config.datasource.replica.lag-query}")
+    private String replicaLagQuery;
+
+    @Value("${app-config.datasource.replica.max-lag}")
+    private Long replicaMaxLag;
+
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties){
+        var dataSource = dataSourceProperties
+                .initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName(PRIMARY_POOL);
+        dataSource.setMaximumPoolSize(primaryMaximumPoolSize);
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties dataSourceProperties){
+        var dataSource = new HikariDataSource();
+        dataSource.setPoolName(REPLICA_POOL);
+        dataSource.setDriverClassName(dataSourceProperties.getDriverClassName());
+        dataSource.setJdbcUrl(replicaUrl);
+        dataSource.setUsername(replicaUsername);
+        dataSource.setPassword(replicaPassword);
+        dataSource.setMaximumPoolSize(replicaMaximumPoolSize);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               MeterRegistry meterRegistry){
+        var monitor = new ReplicaLagMonitor(replicaDataSource, replicaLagQuery, replicaMaxLag, meterRegistry);
+        monitor.checkLag();
+        return monitor;
+    }
+
+    // The lazy proxy delays the physical connection until the first statement, when the read-only flag is already set.
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 MeterRegistry meterRegistry){
+        var routingDataSource = new ReadReplicaRoutingDataSource(replicaLagMonitor, meterRegistry);
+        routingDataSource.setTargetDataSources(Map.of(
+                DataSourceType.PRIMARY, primaryDataSource,
+                DataSourceType.REPLICA, replicaDataSource));
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
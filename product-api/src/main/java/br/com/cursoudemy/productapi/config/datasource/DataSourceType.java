@@ -0,0 +1,7 @@
+package br.com.cursoudemy.productapi.config.datasource;
+
+public enum DataSourceType {
+
+    PRIMARY,
+    REPLICA
+}
@@ -0,0 +1,31 @@
+package br.com.cursoudemy.productapi.config.datasource;
+
+import java.util.function.Supplier;
+
+// Marks reads on the current thread that must see the latest commit, so the routing sends them to the primary even
+// inside a read-only transaction.
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> FORCED = new ThreadLocal<>();
+
+    private PrimaryReads(){
+    }
+
+    public static <T> T call(Supplier<T> reads){
+        var previous = FORCED.get();
+        FORCED.set(Boolean.TRUE);
+        try{
+            return reads.get();
+        } finally {
+            if(previous == null){
+                FORCED.remove();
+            } else {
+                FORCED.set(previous);
+            }
+        }
+    }
+
+    public static boolean isForced(){
+        return Boolean.TRUE.equals(FORCED.get());
+    }
+}
@@ -0,0 +1,38 @@
+package br.com.cursoudemy.productapi.config.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Read-only transactions go to the replica while it is healthy, unless their reads were forced onto the primary;
+// everything else goes to the primary.
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String ROUTING_METRIC = "datasource.routing";
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    private final Map<DataSourceType, Counter> routedConnections = new EnumMap<>(DataSourceType.class);
+
+    public ReadReplicaRoutingDataSource(ReplicaLagMonitor replicaLagMonitor, MeterRegistry meterRegistry){
+        this.replicaLagMonitor = replicaLagMonitor;
+        for(var type : DataSourceType.values()){
+            routedConnections.put(type, meterRegistry.counter(ROUTING_METRIC, "target", type.name().toLowerCase()));
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey(){
+        var target = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !PrimaryReads.isForced()
+                && replicaLagMonitor.isAvailable()
+                ? DataSourceType.REPLICA
+                : DataSourceType.PRIMARY;
+        routedConnections.get(target).increment();
+        return target;
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.cursoudemy.productapi.config.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final Long UNKNOWN_LAG = -1L;
+
+    private final JdbcTemplate replicaJdbcTemplate;
+
+    private final String lagQuery;
+
+    private final Long maxLag;
+
+    private final AtomicBoolean available = new AtomicBoolean(false);
+
+    private final AtomicLong lag = new AtomicLong(UNKNOWN_LAG);
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, String lagQuery, Long maxLag, MeterRegistry meterRegistry){
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        Gauge.builder("datasource.replica.lag", lag, AtomicLong::get)
+                .description("Replication lag of the read replica in milliseconds, -1 when unknown")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.available", available, state -> state.get() ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    public boolean isAvailable(){
+        return available.get();
+    }
+
+    // Reads fall back to the primary while the replica is unreachable or lagging more than max-lag.
+    @Scheduled(fixedDelayString = "${app-config.datasource.replica.lag-check-interval}")
+    public void checkLag(){
+        try{
+            var currentLag = replicaJdbcTemplate.queryForObject(lagQuery, Long.class);
+            lag.set(currentLag == null ? UNKNOWN_LAG : currentLag);
+            var healthy = currentLag != null && currentLag <= maxLag;
+            if(available.getAndSet(healthy) != healthy){
+                log.warn("Read replica is now {} (lag: {} ms, max: {} ms).", healthy ? "in use" : "bypassed", currentLag, maxLag);
+            }
+        } catch (Exception ex){
+            lag.set(UNKNOWN_LAG);
+            if(available.getAndSet(false)){
+                log.warn("Read replica is now bypassed, the lag check failed: {}", ex.getMessage());
+            }
+        }
+    }
+}
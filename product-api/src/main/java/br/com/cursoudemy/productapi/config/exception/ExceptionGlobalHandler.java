@@ -1,5 +1,6 @@
 package br.com.cursoudemy.productapi.config.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -23,4 +24,28 @@ public class ExceptionGlobalHandler {
         details.setMessage(authenticationException.getMessage());
         return new ResponseEntity<>(details, HttpStatus.UNAUTHORIZED);
     }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<?> handlePreconditionFailedException(PreconditionFailedException preconditionFailedException){
+        var details = new ExceptionDetails();
+        details.setStatus(HttpStatus.PRECONDITION_FAILED.value());
+        details.setMessage(preconditionFailedException.getMessage());
+        return new ResponseEntity<>(details, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(PreconditionRequiredException.class)
+    public ResponseEntity<?> handlePreconditionRequiredException(PreconditionRequiredException preconditionRequiredException){
+        var details = new ExceptionDetails();
+        details.setStatus(HttpStatus.PRECONDITION_REQUIRED.value());
+        details.setMessage(preconditionRequiredException.getMessage());
+        return new ResponseEntity<>(details, HttpStatus.PRECONDITION_REQUIRED);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleOptimisticLockingFailureException(OptimisticLockingFailureException optimisticLockingFailureException){
+        var details = new ExceptionDetails();
+        details.setStatus(HttpStatus.CONFLICT.value());
+        details.setMessage("The resource was changed by another request, reload it and try again.");
+        return new ResponseEntity<>(details, HttpStatus.CONFLICT);
+    }
 }
@@ -1,10 +1,12 @@
 package br.com.cursoudemy.productapi.config.interceptor;
 
 import br.com.cursoudemy.productapi.config.exception.ValidationException;
+import br.com.cursoudemy.productapi.config.logging.MdcFilter;
 import br.com.cursoudemy.productapi.modules.jwt.service.JwtService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
@@ -31,7 +33,9 @@ public class AuthInterceptor implements HandlerInterceptor {
         }
         var authorization = request.getHeader(AUTHORIZATION);
         jwtService.isAuthorized(authorization);
-        request.setAttribute("serviceid", UUID.randomUUID().toString());
+        var serviceId = UUID.randomUUID().toString();
+        request.setAttribute(MdcFilter.SERVICE_ID, serviceId);
+        MDC.put(MdcFilter.SERVICE_ID, serviceId);
         return true;
     }
 
@@ -1,14 +1,19 @@
 package br.com.cursoudemy.productapi.config.interceptor;
 
+import br.com.cursoudemy.productapi.config.metrics.QueryCountInterceptor;
 import br.com.cursoudemy.productapi.modules.jwt.service.JwtService;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
+@RequiredArgsConstructor
 public class InterceptorConfig implements WebMvcConfigurer {
 
+    private final QueryCountInterceptor queryCountInterceptor;
+
     @Bean
     public JwtService jwtService(){
         return new JwtService();
@@ -21,6 +26,7 @@ public class InterceptorConfig implements WebMvcConfigurer {
 
     @Override
     public void addInterceptors(InterceptorRegistry registry){
+        registry.addInterceptor(queryCountInterceptor);
         registry.addInterceptor(authInterceptor());
     }
 }
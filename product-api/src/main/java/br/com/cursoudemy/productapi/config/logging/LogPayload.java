@@ -0,0 +1,38 @@
+package br.com.cursoudemy.productapi.config.logging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Renders a payload as JSON only when the logger formats the line, so disabled levels cost nothing.
+public final class LogPayload {
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder().findAndAddModules().build();
+    private static final String NOT_SAMPLED = "[payload not sampled]";
+
+    private final Object payload;
+
+    private final double rate;
+
+    private LogPayload(Object payload, double rate){
+        this.payload = payload;
+        this.rate = rate;
+    }
+
+    public static LogPayload sampled(Object payload, double rate){
+        return new LogPayload(payload, rate);
+    }
+
+    @Override
+    public String toString(){
+        if(rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate){
+            return NOT_SAMPLED;
+        }
+        try{
+            return MAPPER.writeValueAsString(payload);
+        } catch (Exception ex){
+            return String.valueOf(payload);
+        }
+    }
+}
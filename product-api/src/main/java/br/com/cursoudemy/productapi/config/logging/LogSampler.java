@@ -0,0 +1,25 @@
+package br.com.cursoudemy.productapi.config.logging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Per-route share of log lines that carry their payload; the line itself is always written.
+@Component
+public class LogSampler {
+
+    private final Double defaultRate;
+
+    private final Map<String, Double> routeRates;
+
+    public LogSampler(@Value("${app-config.logging.payload-sampling.default-rate}") Double defaultRate,
+                      @Value("#{${app-config.logging.payload-sampling.routes}}") Map<String, Double> routeRates){
+        this.defaultRate = defaultRate;
+        this.routeRates = Map.copyOf(routeRates);
+    }
+
+    public LogPayload payload(String route, Object payload){
+        return LogPayload.sampled(payload, routeRates.getOrDefault(route, defaultRate));
+    }
+}
@@ -0,0 +1,38 @@
+package br.com.cursoudemy.productapi.config.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+import static org.springframework.util.ObjectUtils.isEmpty;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MdcFilter extends OncePerRequestFilter {
+
+    public static final String TRANSACTION_ID = "transactionid";
+    public static final String SERVICE_ID = "serviceid";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var transactionId = request.getHeader(TRANSACTION_ID);
+        if(!isEmpty(transactionId)){
+            MDC.put(TRANSACTION_ID, transactionId);
+        }
+        try{
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(TRANSACTION_ID);
+            MDC.remove(SERVICE_ID);
+        }
+    }
+}
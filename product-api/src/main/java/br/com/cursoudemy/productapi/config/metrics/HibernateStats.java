@@ -0,0 +1,21 @@
+package br.com.cursoudemy.productapi.config.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HibernateStats {
+
+    private Long preparedStatements;
+    private Long queryExecutions;
+    private Long queryExecutionMaxTime;
+    private String queryExecutionMaxTimeQueryString;
+    private Long entityLoads;
+    private Long entityFetches;
+    private Long collectionFetches;
+    private Long secondLevelCacheHits;
+    private Long secondLevelCacheMisses;
+}
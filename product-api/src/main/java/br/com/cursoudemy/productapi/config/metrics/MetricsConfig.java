@@ -0,0 +1,34 @@
+package br.com.cursoudemy.productapi.config.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig {
+
+    private static final String DATA_SOURCE = "dataSource";
+
+    // Wraps only the DataSource the application talks to, so routed connections are not counted twice.
+    @Bean
+    public static BeanPostProcessor queryDiagnosticsDataSourcePostProcessor(ObjectProvider<QueryDiagnosticsRecorder> recorder){
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName){
+                if(!DATA_SOURCE.equals(beanName) || !(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource){
+                    return bean;
+                }
+                return ProxyDataSourceBuilder
+                        .create(dataSource)
+                        .name(DATA_SOURCE)
+                        .listener(recorder.getObject())
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package br.com.cursoudemy.productapi.config.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+@Component
+@RequiredArgsConstructor
+public class QueryCountInterceptor implements HandlerInterceptor {
+
+    private static final String QUERIES_METRIC = "http.server.requests.queries";
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    private final QueryDiagnosticsRecorder queryDiagnosticsRecorder;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler){
+        var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        QueryDiagnostics.start(request.getMethod() + " " + (pattern != null ? pattern.toString() : UNKNOWN_URI));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex){
+        var diagnostics = QueryDiagnostics.finish();
+        if(diagnostics == null){
+            return;
+        }
+        var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary
+                .builder(QUERIES_METRIC)
+                .description("SQL statements executed per request")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern != null ? pattern.toString() : UNKNOWN_URI)
+                .register(meterRegistry)
+                .record(diagnostics.getCount());
+        queryDiagnosticsRecorder.inspect(diagnostics);
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.cursoudemy.productapi.config.metrics;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Statements executed by one unit of work on the current thread. Requests are tracked by QueryCountInterceptor;
+// anything else, a test included, can wrap its work in start() and finish() to read the same numbers.
+public class QueryDiagnostics {
+
+    private static final ThreadLocal<QueryDiagnostics> CURRENT = new ThreadLocal<>();
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Getter
+    private final String route;
+
+    @Getter
+    private int count;
+
+    @Getter
+    private final Map<String, Integer> statements = new HashMap<>();
+
+    private QueryDiagnostics(String route){
+        this.route = route;
+    }
+
+    public static QueryDiagnostics start(String route){
+        var diagnostics = new QueryDiagnostics(route);
+        CURRENT.set(diagnostics);
+        return diagnostics;
+    }
+
+    public static QueryDiagnostics current(){
+        return CURRENT.get();
+    }
+
+    public static QueryDiagnostics finish(){
+        var diagnostics = CURRENT.get();
+        CURRENT.remove();
+        return diagnostics;
+    }
+
+    // Batches are counted but not compared, a chunked bulk insert is not an N+1.
+    public void record(String sql, boolean batch){
+        count++;
+        if(!batch){
+            statements.merge(normalize(sql), 1, Integer::sum);
+        }
+    }
+
+    // Collapses IN lists and whitespace so the same statement with different arities is counted together.
+    public static String normalize(String sql){
+        return WHITESPACE
+                .matcher(IN_LIST.matcher(sql).replaceAll("(?)"))
+                .replaceAll(" ")
+                .trim();
+    }
+}
@@ -0,0 +1,148 @@
+package br.com.cursoudemy.productapi.config.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+// Listens to every statement on the application DataSource: keeps the slowest ones and flags repeated statements per request.
+@Slf4j
+@Component
+public class QueryDiagnosticsRecorder implements QueryExecutionListener {
+
+    private static final String SLOW_QUERIES_METRIC = "db.queries.slow";
+    private static final String REPEATED_QUERIES_METRIC = "http.server.requests.repeated-queries";
+    private static final String BACKGROUND_ROUTE = "background";
+
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    private final Long slowQueryThreshold;
+
+    private final Integer repeatedQueryThreshold;
+
+    private final Integer slowQueryHistory;
+
+    private final Deque<SlowQuery> slowQueries;
+
+    private final Cache<String, RepeatedQuery> repeatedQueries;
+
+    public QueryDiagnosticsRecorder(MeterRegistry meterRegistry,
+                                    ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                    @Value("${app-config.query-diagnostics.slow-query-threshold}") Long slowQueryThreshold,
+                                    @Value("${app-config.query-diagnostics.repeated-query-threshold}") Integer repeatedQueryThreshold,
+                                    @Value("${app-config.query-diagnostics.history-size}") Integer historySize){
+        this.meterRegistry = meterRegistry;
+        this.entityManagerFactory = entityManagerFactory;
+        this.slowQueryThreshold = slowQueryThreshold;
+        this.repeatedQueryThreshold = repeatedQueryThreshold;
+        slowQueryHistory = historySize;
+        slowQueries = new ArrayDeque<>(historySize);
+        repeatedQueries = Caffeine
+                .newBuilder()
+                .maximumSize(historySize)
+                .build();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList){
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList){
+        var diagnostics = QueryDiagnostics.current();
+        var sql = queryInfoList
+                .stream()
+                .map(QueryInfo::getQuery)
+                .reduce((first, second) -> first + "; " + second)
+                .orElse("");
+        if(diagnostics != null){
+            diagnostics.record(sql, execInfo.isBatch());
+        }
+        if(execInfo.getElapsedTime() >= slowQueryThreshold){
+            var route = diagnostics != null ? diagnostics.getRoute() : BACKGROUND_ROUTE;
+            log.warn("Slow query on {} took {} ms: {}", route, execInfo.getElapsedTime(), sql);
+            meterRegistry.counter(SLOW_QUERIES_METRIC, "uri", route).increment();
+            addSlowQuery(new SlowQuery(route, sql, execInfo.getElapsedTime(), LocalDateTime.now()));
+        }
+    }
+
+    // The same statement run many times in one request is the usual shape of an N+1.
+    public void inspect(QueryDiagnostics diagnostics){
+        diagnostics.getStatements().forEach((sql, executions) -> {
+            if(executions < repeatedQueryThreshold){
+                return;
+            }
+            log.warn("Possible N+1 on {}: {} executions of {}", diagnostics.getRoute(), executions, sql);
+            meterRegistry.counter(REPEATED_QUERIES_METRIC, "uri", diagnostics.getRoute()).increment();
+            repeatedQueries
+                    .asMap()
+                    .merge(diagnostics.getRoute() + '|' + sql,
+                            new RepeatedQuery(diagnostics.getRoute(), sql, executions, 1L, LocalDateTime.now()),
+                            (previous, current) -> new RepeatedQuery(previous.getRoute(), previous.getSql(),
+                                    Math.max(previous.getMaxExecutions(), executions), previous.getOccurrences() + 1,
+                                    current.getLastSeenAt()));
+        });
+    }
+
+    public QueryDiagnosticsStats getStats(){
+        List<SlowQuery> slowest;
+        synchronized(slowQueries){
+            slowest = new ArrayList<>(slowQueries);
+        }
+        slowest.sort(Comparator.comparing(SlowQuery::getElapsedMillis).reversed());
+        var repeated = repeatedQueries
+                .asMap()
+                .values()
+                .stream()
+                .sorted(Comparator.comparing(RepeatedQuery::getOccurrences).reversed())
+                .toList();
+        return new QueryDiagnosticsStats(slowQueryThreshold, repeatedQueryThreshold, slowest, repeated, getHibernateStats());
+    }
+
+    private void addSlowQuery(SlowQuery slowQuery){
+        synchronized(slowQueries){
+            if(slowQueries.size() == slowQueryHistory){
+                slowQueries.removeFirst();
+            }
+            slowQueries.addLast(slowQuery);
+        }
+    }
+
+    private HibernateStats getHibernateStats(){
+        var factory = entityManagerFactory.getIfAvailable();
+        if(factory == null){
+            return null;
+        }
+        var statistics = factory.unwrap(SessionFactory.class).getStatistics();
+        if(!statistics.isStatisticsEnabled()){
+            return null;
+        }
+        return new HibernateStats(
+                statistics.getPrepareStatementCount(),
+                statistics.getQueryExecutionCount(),
+                statistics.getQueryExecutionMaxTime(),
+                statistics.getQueryExecutionMaxTimeQueryString(),
+                statistics.getEntityLoadCount(),
+                statistics.getEntityFetchCount(),
+                statistics.getCollectionFetchCount(),
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount());
+    }
+}
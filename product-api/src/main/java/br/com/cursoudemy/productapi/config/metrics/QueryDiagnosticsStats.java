@@ -0,0 +1,19 @@
+package br.com.cursoudemy.productapi.config.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryDiagnosticsStats {
+
+    private Long slowQueryThresholdMillis;
+    private Integer repeatedQueryThreshold;
+    private List<SlowQuery> slowQueries;
+    private List<RepeatedQuery> repeatedQueries;
+    private HibernateStats hibernate;
+}
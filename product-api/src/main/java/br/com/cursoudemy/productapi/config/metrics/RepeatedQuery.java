@@ -0,0 +1,19 @@
+package br.com.cursoudemy.productapi.config.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RepeatedQuery {
+
+    private String route;
+    private String sql;
+    private Integer maxExecutions;
+    private Long occurrences;
+    private LocalDateTime lastSeenAt;
+}
@@ -0,0 +1,18 @@
+package br.com.cursoudemy.productapi.config.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowQuery {
+
+    private String route;
+    private String sql;
+    private Long elapsedMillis;
+    private LocalDateTime executedAt;
+}
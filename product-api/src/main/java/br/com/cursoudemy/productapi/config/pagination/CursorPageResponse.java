@@ -0,0 +1,27 @@
+package br.com.cursoudemy.productapi.config.pagination;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private Integer size;
+    @JsonProperty("next_cursor")
+    private Integer nextCursor;
+
+    public static <T> CursorPageResponse<T> of(List<T> content, Integer size, Function<T, Integer> cursorOf){
+        var nextCursor = content.size() < size
+                ? null
+                : cursorOf.apply(content.get(content.size() - 1));
+        return new CursorPageResponse<>(content, size, nextCursor);
+    }
+}
@@ -0,0 +1,40 @@
+package br.com.cursoudemy.productapi.config.pagination;
+
+import br.com.cursoudemy.productapi.config.exception.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.util.ObjectUtils.isEmpty;
+
+@Component
+public class CursorPagination {
+
+    private static final Integer FIRST_CURSOR = 0;
+    private static final Integer FIRST_PAGE = 0;
+
+    @Value("${app-config.pagination.default-size}")
+    private Integer defaultSize;
+
+    @Value("${app-config.pagination.max-size}")
+    private Integer maxSize;
+
+    public Integer resolveCursor(Integer after){
+        return isEmpty(after) ? FIRST_CURSOR : after;
+    }
+
+    public Integer resolveSize(Integer size){
+        if(isEmpty(size)){
+            return defaultSize;
+        }
+        if(size <= 0 || size > maxSize){
+            throw new ValidationException(String.format("The page size should be between 1 and %s.", maxSize));
+        }
+        return size;
+    }
+
+    public Pageable limit(Integer size){
+        return PageRequest.of(FIRST_PAGE, size);
+    }
+}
@@ -0,0 +1,27 @@
+package br.com.cursoudemy.productapi.config.pagination;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+@Component
+@RequiredArgsConstructor
+public class JsonArrayStreamWriter {
+
+    private final ObjectMapper objectMapper;
+
+    public <T> void write(OutputStream outputStream, Stream<T> items) throws IOException {
+        try(var generator = objectMapper.getFactory().createGenerator(outputStream)){
+            generator.writeStartArray();
+            var iterator = items.iterator();
+            while(iterator.hasNext()){
+                generator.writeObject(iterator.next());
+            }
+            generator.writeEndArray();
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package br.com.cursoudemy.productapi.config.rabbit;
 
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -15,6 +20,9 @@ public class RabbitConfig {
     @Value("${app-config.rabbit.exchange.product}")
     private String productTopicExchange;
 
+    @Value("${app-config.rabbit.exchange.product-response-invalidation}")
+    private String productResponseInvalidationExchange;
+
     @Value("${app-config.rabbit.routingKey.product-stock}")
     private String productStockKey;
 
@@ -27,11 +35,30 @@ public class RabbitConfig {
     @Value("${app-config.rabbit.queue.sales-confirmation}")
     private String salesConfirmationMq;
 
+    @Value("${app-config.rabbit.listener.product-stock.concurrency}")
+    private Integer productStockConcurrency;
+
+    @Value("${app-config.rabbit.listener.product-stock.max-concurrency}")
+    private Integer productStockMaxConcurrency;
+
+    @Value("${app-config.rabbit.listener.product-stock.prefetch}")
+    private Integer productStockPrefetch;
+
+    @Value("${app-config.rabbit.listener.product-stock.batch-size}")
+    private Integer productStockBatchSize;
+
+    @Value("${app-config.rabbit.listener.product-stock.receive-timeout}")
+    private Long productStockReceiveTimeout;
+
     @Bean
     public TopicExchange productTopicExchange(){
         return new TopicExchange(productTopicExchange);
     }
     @Bean
+    public FanoutExchange productResponseInvalidationExchange(){
+        return new FanoutExchange(productResponseInvalidationExchange);
+    }
+    @Bean
     public Queue productStockMq(){
         return new Queue(productStockMq, true);
     }
@@ -40,6 +67,12 @@ public class RabbitConfig {
         return new Queue(salesConfirmationMq, true);
     }
 
+    // One exclusive, auto-deleted queue per instance, so every instance gets every invalidation.
+    @Bean
+    public Queue productResponseInvalidationMq(){
+        return new AnonymousQueue();
+    }
+
     @Bean
     public Binding productStockMqBinding(TopicExchange topicExchange){
         return BindingBuilder
@@ -56,8 +89,31 @@ public class RabbitConfig {
                 .with(salesConfirmationKey);// através dessa chave
     }
 
+    @Bean
+    public Binding productResponseInvalidationMqBinding(FanoutExchange productResponseInvalidationExchange){
+        return BindingBuilder
+                .bind(productResponseInvalidationMq())
+                .to(productResponseInvalidationExchange);
+    }
+
     @Bean
     public Jackson2JsonMessageConverter jsonMessageConverter(){
         return new Jackson2JsonMessageConverter();
     }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory productStockContainerFactory(ConnectionFactory connectionFactory){
+        var factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter());
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setConcurrentConsumers(productStockConcurrency);
+        factory.setMaxConcurrentConsumers(productStockMaxConcurrency);
+        factory.setPrefetchCount(productStockPrefetch);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(productStockBatchSize);
+        factory.setReceiveTimeout(productStockReceiveTimeout);
+        return factory;
+    }
 }
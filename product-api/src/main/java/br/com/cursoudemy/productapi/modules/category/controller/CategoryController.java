@@ -1,13 +1,17 @@
 package br.com.cursoudemy.productapi.modules.category.controller;
 
 import br.com.cursoudemy.productapi.config.exception.SuccessResponse;
+import br.com.cursoudemy.productapi.config.pagination.CursorPageResponse;
 import br.com.cursoudemy.productapi.modules.category.dto.request.CategoryRequest;
 import br.com.cursoudemy.productapi.modules.category.dto.response.CategoryResponse;
 import br.com.cursoudemy.productapi.modules.category.service.CategoryService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -23,8 +27,15 @@ public class CategoryController {
     }
 
     @GetMapping
-    public List<CategoryResponse> findAll(){
-        return categoryService.findAll();
+    public void findAll(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        categoryService.writeAll(response.getOutputStream());
+    }
+
+    @GetMapping("page")
+    public CursorPageResponse<CategoryResponse> findPage(@RequestParam(required = false) Integer after,
+                                                         @RequestParam(required = false) Integer size){
+        return categoryService.findPage(after, size);
     }
 
     @GetMapping("{id}")
@@ -33,8 +44,10 @@ public class CategoryController {
     }
 
     @GetMapping("description/{description}")
-    public List<CategoryResponse> findByDescription(@PathVariable String description){
-        return categoryService.findByDescription(description);
+    public List<CategoryResponse> findByDescription(@PathVariable String description,
+                                                    @RequestParam(required = false) Integer page,
+                                                    @RequestParam(required = false) Integer size){
+        return categoryService.findByDescription(description, page, size);
     }
 
     @DeleteMapping("{id}")
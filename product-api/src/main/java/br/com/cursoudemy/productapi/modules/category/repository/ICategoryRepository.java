@@ -1,11 +1,29 @@
 package br.com.cursoudemy.productapi.modules.category.repository;
 
 import br.com.cursoudemy.productapi.modules.category.model.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ICategoryRepository extends JpaRepository<Category, Integer> {
 
-    List<Category> findByDescriptionIgnoreCaseContaining(String description);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT c FROM Category c ORDER BY c.id")
+    Stream<Category> streamAll();
+
+    @Query("SELECT c FROM Category c WHERE c.id > :after ORDER BY c.id")
+    List<Category> findPageAfter(@Param("after") Integer after, Pageable pageable);
+
+    @Query(value = "SELECT ID FROM CATEGORY WHERE DESCRIPTION ILIKE CONCAT('%', :query, '%') OR DESCRIPTION % :query "
+            + "ORDER BY SIMILARITY(DESCRIPTION, :query) DESC, ID LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Integer> searchIdsByDescription(@Param("query") String query,
+                                         @Param("limit") Integer limit,
+                                         @Param("offset") Integer offset);
 }
@@ -1,18 +1,33 @@
 package br.com.cursoudemy.productapi.modules.category.service;
 
+import br.com.cursoudemy.productapi.config.cache.CacheConfig;
 import br.com.cursoudemy.productapi.config.exception.SuccessResponse;
 import br.com.cursoudemy.productapi.config.exception.ValidationException;
+import br.com.cursoudemy.productapi.config.pagination.CursorPageResponse;
+import br.com.cursoudemy.productapi.config.pagination.CursorPagination;
+import br.com.cursoudemy.productapi.config.pagination.JsonArrayStreamWriter;
 import br.com.cursoudemy.productapi.modules.category.dto.request.CategoryRequest;
 import br.com.cursoudemy.productapi.modules.category.dto.response.CategoryResponse;
 import br.com.cursoudemy.productapi.modules.category.model.Category;
 import br.com.cursoudemy.productapi.modules.category.repository.ICategoryRepository;
+import br.com.cursoudemy.productapi.modules.produto.service.ProductResponseCache;
 import br.com.cursoudemy.productapi.modules.produto.service.ProductService;
+import br.com.cursoudemy.productapi.modules.search.enums.SearchDomain;
+import br.com.cursoudemy.productapi.modules.search.service.SearchService;
+import jakarta.persistence.EntityManager;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static io.micrometer.common.util.StringUtils.isBlank;
@@ -23,32 +38,65 @@ public class CategoryService {
 
     private final ICategoryRepository iCategoryRepository;
 
+    private final CursorPagination cursorPagination;
+
+    private final JsonArrayStreamWriter jsonArrayStreamWriter;
+
+    private final EntityManager entityManager;
+
+    private final SearchService searchService;
+
+    private final ProductResponseCache productResponseCache;
+
     @Lazy
     private final ProductService productService;
 
+    @Transactional(readOnly = true)
     public CategoryResponse findByIdResponse(Integer id){
         return CategoryResponse.of(findById(id));
     }
 
-    public List<CategoryResponse> findByDescription(String description){
+    @Transactional(readOnly = true)
+    public List<CategoryResponse> findByDescription(String description, Integer page, Integer size){
         if (isBlank(description)){
             throw new ValidationException("The category description should be informed.");
         }
-        return iCategoryRepository
-                .findByDescriptionIgnoreCaseContaining(description)
+        var ids = searchService.search(SearchDomain.CATEGORY, description, page, size);
+        var categories = iCategoryRepository
+                .findAllById(ids)
                 .stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+        return ids
+                .stream()
+                .map(categories::get)
+                .filter(Objects::nonNull)
                 .map(CategoryResponse::of)
                 .collect(Collectors.toList());
     }
 
-    public List<CategoryResponse> findAll(){
-        return iCategoryRepository
-                .findAll()
+    @Transactional(readOnly = true)
+    public void writeAll(OutputStream outputStream) throws IOException {
+        try(var categories = iCategoryRepository.streamAll()){
+            jsonArrayStreamWriter.write(outputStream, categories.map(category -> {
+                var response = CategoryResponse.of(category);
+                entityManager.detach(category);
+                return response;
+            }));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CategoryResponse> findPage(Integer after, Integer size){
+        var pageSize = cursorPagination.resolveSize(size);
+        var categories = iCategoryRepository
+                .findPageAfter(cursorPagination.resolveCursor(after), cursorPagination.limit(pageSize))
                 .stream()
                 .map(CategoryResponse::of)
                 .collect(Collectors.toList());
+        return CursorPageResponse.of(categories, pageSize, CategoryResponse::getId);
     }
 
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "#id")
     public Category findById(Integer id){
         validateInformedId(id);
         return iCategoryRepository
@@ -59,24 +107,30 @@ public class CategoryService {
     public CategoryResponse save(CategoryRequest request){
         validateCategoryNameInformed(request);
         var category = iCategoryRepository.save(Category.of(request));
+        searchService.index(SearchDomain.CATEGORY, category.getId(), category.getDescription());
         return CategoryResponse.of(category);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = "#id")
     public CategoryResponse update(CategoryRequest request, Integer id){
         validateCategoryNameInformed(request);
         validateInformedId(id);
         var category = Category.of(request);
         category.setId(id);
         iCategoryRepository.save(category);
+        searchService.index(SearchDomain.CATEGORY, id, category.getDescription());
+        productResponseCache.evictCategory(id);
         return CategoryResponse.of(category);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = "#id")
     public SuccessResponse delete(Integer id){
         validateInformedId(id);
         if(productService.existsByCategoryId(id)){
             throw new ValidationException("You cannot delete this category because its already defined by a product.");
         }
         iCategoryRepository.deleteById(id);
+        searchService.remove(SearchDomain.CATEGORY, id);
         return SuccessResponse.create("This category was deleted.");
     }
 
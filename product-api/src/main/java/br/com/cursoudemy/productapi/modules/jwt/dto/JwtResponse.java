@@ -13,13 +13,15 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class JwtResponse {
 
+    private static final ObjectMapper CLAIMS_MAPPER = new ObjectMapper();
+
     private Integer id;
     private String name;
     private String email;
 
     public static JwtResponse getUser(Claims jwtClaims){
         try{
-            return new ObjectMapper().convertValue(jwtClaims.get("authUser"), JwtResponse.class);
+            return CLAIMS_MAPPER.convertValue(jwtClaims.get("authUser"), JwtResponse.class);
         }catch (Exception ex){
             ex.printStackTrace();
             return null;
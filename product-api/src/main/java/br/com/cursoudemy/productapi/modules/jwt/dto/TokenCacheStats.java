@@ -0,0 +1,16 @@
+package br.com.cursoudemy.productapi.modules.jwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenCacheStats {
+
+    private Long size;
+    private Long hits;
+    private Long misses;
+    private Double hitRate;
+}
@@ -2,42 +2,132 @@ package br.com.cursoudemy.productapi.modules.jwt.service;
 
 import br.com.cursoudemy.productapi.config.exception.AuthenticationException;
 import br.com.cursoudemy.productapi.modules.jwt.dto.JwtResponse;
+import br.com.cursoudemy.productapi.modules.jwt.dto.TokenCacheStats;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
-import org.apache.logging.log4j.util.Strings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 import static org.springframework.util.ObjectUtils.isEmpty;
 
 @Service
-public class JwtService {
+public class JwtService implements MeterBinder {
 
     private static final String EMPTY_SPACE = " ";
     private static final Integer TOKEN_INDEX = 1;
+    private static final String TOKEN_HASH_ALGORITHM = "SHA-256";
+    private static final String AUTH_USER = "authUser";
+    private static final Integer SERVICE_USER_ID = 0;
+    private static final String SERVICE_USER_NAME = "product-api";
+    private static final String SERVICE_USER_EMAIL = "product-api@service.local";
+    private static final Long SERVICE_TOKEN_VALIDITY = TimeUnit.MINUTES.toMillis(5);
 
     @Value("${app-config.secrets.api-secret}")
     private String apiSecret;
 
+    @Value("${app-config.secrets.token-cache.max-size}")
+    private Long tokenCacheMaxSize;
+
+    private Key signingKey;
+
+    private JwtParser jwtParser;
+
+    // Token hash -> token expiration (epoch millis), entries expire together with the token.
+    private Cache<String, Long> verifiedTokens;
+
+    @PostConstruct
+    public void init(){
+        signingKey = Keys.hmacShaKeyFor(apiSecret.getBytes());
+        jwtParser = Jwts
+                .parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = Caffeine
+                .newBuilder()
+                .maximumSize(tokenCacheMaxSize)
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String tokenHash, Long expiresAt, long currentTime){
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(expiresAt - System.currentTimeMillis(), 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenHash, Long expiresAt, long currentTime, long currentDuration){
+                        return expireAfterCreate(tokenHash, expiresAt, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenHash, Long expiresAt, long currentTime, long currentDuration){
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
     public void isAuthorized(String token){
         var accessToken = extractToken(token);
+        var tokenHash = hashToken(accessToken);
+        var expiresAt = verifiedTokens.getIfPresent(tokenHash);
+        if(expiresAt != null && expiresAt > System.currentTimeMillis()){
+            return;
+        }
         try{
-            var claims = Jwts
-                    .parserBuilder()
-                    .setSigningKey(Keys.hmacShaKeyFor(apiSecret.getBytes()))
-                    .build()
+            var claims = jwtParser
                     .parseClaimsJws(accessToken)
                     .getBody();
             var user = JwtResponse.getUser(claims);
             if (isEmpty(user) || isEmpty(user.getId())){
                 throw new AuthenticationException("The user is not valid.");
             }
+            if(!isEmpty(claims.getExpiration())){
+                verifiedTokens.put(tokenHash, claims.getExpiration().getTime());
+            }
         } catch (Exception ex){
             ex.printStackTrace();
             throw new AuthenticationException("Error while trying to proccess the Access Token");
         }
     }
 
+    // Short-lived token used by product-api itself when calling the other services.
+    public String createServiceToken(){
+        var now = System.currentTimeMillis();
+        return Jwts
+                .builder()
+                .claim(AUTH_USER, Map.of("id", SERVICE_USER_ID, "name", SERVICE_USER_NAME, "email", SERVICE_USER_EMAIL))
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + SERVICE_TOKEN_VALIDITY))
+                .signWith(signingKey)
+                .compact();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry){
+        CaffeineCacheMetrics.monitor(registry, verifiedTokens, "jwt.verified-tokens");
+    }
+
+    public TokenCacheStats getTokenCacheStats(){
+        var stats = verifiedTokens.stats();
+        return new TokenCacheStats(verifiedTokens.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate());
+    }
+
     private String extractToken(String token){
         if(isEmpty(token)){
             throw new AuthenticationException("The access token was not informed.");
@@ -47,4 +137,14 @@ public class JwtService {
         }
         return token;
     }
+
+    private String hashToken(String accessToken){
+        try{
+            var digest = MessageDigest.getInstance(TOKEN_HASH_ALGORITHM)
+                    .digest(accessToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex){
+            throw new IllegalStateException(ex);
+        }
+    }
 }
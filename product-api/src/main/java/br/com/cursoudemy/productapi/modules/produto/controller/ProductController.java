@@ -1,5 +1,7 @@
 package br.com.cursoudemy.productapi.modules.produto.controller;
 
+import br.com.cursoudemy.productapi.config.exception.PreconditionFailedException;
+import br.com.cursoudemy.productapi.config.exception.PreconditionRequiredException;
 import br.com.cursoudemy.productapi.config.exception.SuccessResponse;
 import br.com.cursoudemy.productapi.modules.category.dto.request.CategoryRequest;
 import br.com.cursoudemy.productapi.modules.category.dto.response.CategoryResponse;
@@ -7,14 +9,30 @@ import br.com.cursoudemy.productapi.modules.category.service.CategoryService;
 import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductStockDTO;
 import br.com.cursoudemy.productapi.modules.produto.dto.request.ProductCheckStock;
 import br.com.cursoudemy.productapi.modules.produto.dto.request.ProductRequest;
+import br.com.cursoudemy.productapi.modules.produto.dto.request.ProductStockAdjustmentRequest;
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductImportResponse;
 import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductResponse;
 import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductSalesResponse;
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductStockAdjustmentResponse;
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductStockReport;
+import br.com.cursoudemy.productapi.modules.produto.enums.ProductImportFormat;
+import br.com.cursoudemy.productapi.modules.produto.service.ProductImportService;
+import br.com.cursoudemy.productapi.modules.produto.service.ProductJsonService;
 import br.com.cursoudemy.productapi.modules.produto.service.ProductService;
 import br.com.cursoudemy.productapi.modules.supplier.dto.response.SupplierResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -22,36 +40,69 @@ import java.util.List;
 @RequestMapping("/api/product")
 public class ProductController {
 
+    private static final String TEXT_CSV = "text/csv";
+    private static final String ANY_VERSION = "*";
+
     private final ProductService productService;
 
+    private final ProductImportService productImportService;
+
+    private final ProductJsonService productJsonService;
+
     @PostMapping("")
     public ProductResponse save(@RequestBody ProductRequest request){
         return productService.save(request);
     }
 
+    @PostMapping(value = "import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV})
+    public ProductImportResponse importProducts(HttpServletRequest request) throws IOException {
+        var format = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.valueOf(TEXT_CSV))
+                ? ProductImportFormat.CSV
+                : ProductImportFormat.NDJSON;
+        return productImportService.importProducts(request.getInputStream(), format);
+    }
+
     @GetMapping
-    public List<ProductResponse> findAll(){
-        return productService.findAll();
+    public void findAll(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        productService.writeAll(response.getOutputStream());
+    }
+
+    @GetMapping("page")
+    public ResponseEntity<byte[]> findPage(@RequestParam(required = false) Integer after,
+                                          @RequestParam(required = false) Integer size,
+                                          WebRequest webRequest){
+        var page = productJsonService.findPage(after, size);
+        if(webRequest.checkNotModified(DigestUtils.md5DigestAsHex(page))){
+            return null;
+        }
+        return json(page);
     }
 
     @GetMapping("{id}")
-    public ProductResponse findById(@PathVariable Integer id){
-        return productService.findByIdResponse(id);
+    public ResponseEntity<byte[]> findById(@PathVariable Integer id, WebRequest webRequest){
+        var product = productJsonService.findById(id);
+        if(webRequest.checkNotModified(product.getEtag())){
+            return null;
+        }
+        return json(product.getJson());
     }
 
     @GetMapping("name/{name}")
-    public List<ProductResponse> findByName(@PathVariable String name){
-        return productService.findByName(name);
+    public List<ProductResponse> findByName(@PathVariable String name,
+                                            @RequestParam(required = false) Integer page,
+                                            @RequestParam(required = false) Integer size){
+        return productService.findByName(name, page, size);
     }
 
     @GetMapping("category/{categoryId}")
-    public List<ProductResponse> findByCategoryId(@PathVariable Integer categoryId){
-        return productService.findByCategoryId(categoryId);
+    public ResponseEntity<byte[]> findByCategoryId(@PathVariable Integer categoryId){
+        return json(productJsonService.findByCategoryId(categoryId));
     }
 
     @GetMapping("supplier/{supplierId}")
-    public List<ProductResponse> findBySupplierId(@PathVariable Integer supplierId){
-        return productService.findBySupplierId(supplierId);
+    public ResponseEntity<byte[]> findBySupplierId(@PathVariable Integer supplierId){
+        return json(productJsonService.findBySupplierId(supplierId));
     }
 
     @DeleteMapping("{id}")
@@ -60,8 +111,19 @@ public class ProductController {
     }
 
     @PutMapping("{id}")
-    public ProductResponse update(@RequestBody ProductRequest request, @PathVariable Integer id){
-        return productService.update(request, id);
+    public ResponseEntity<ProductResponse> update(@RequestBody ProductRequest request,
+                                                  @PathVariable Integer id,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        var product = productService.update(request, id, parseVersion(ifMatch));
+        return ResponseEntity
+                .ok()
+                .eTag(String.valueOf(product.getVersion()))
+                .body(product);
+    }
+
+    @PostMapping("stock/adjustments")
+    public ProductStockAdjustmentResponse adjustStock(@RequestBody ProductStockAdjustmentRequest request){
+        return productService.adjustStock(request);
     }
 
     @PostMapping("check-stock")
@@ -69,8 +131,44 @@ public class ProductController {
         return productService.checkProductsStock(productStock);
     }
 
+    @PostMapping("check-stock/report")
+    public ProductStockReport checkProductStockReport(@RequestBody ProductCheckStock productStock){
+        return productService.checkProductsStockReport(productStock);
+    }
+
     @GetMapping("{id}/sales")
-    public ProductSalesResponse findByProductSales(@PathVariable Integer id){
+    public Mono<ProductSalesResponse> findByProductSales(@PathVariable Integer id){
         return productService.findProductSalesById(id);
     }
+
+    // An update must say which version it replaces; "*" overwrites knowingly, but still fails on a concurrent write.
+    private Long parseVersion(String ifMatch){
+        if(ifMatch == null || ifMatch.isBlank()){
+            throw new PreconditionRequiredException("The If-Match header must carry the product version being updated.");
+        }
+        if(ANY_VERSION.equals(ifMatch.trim())){
+            return null;
+        }
+        var tag = ifMatch.trim();
+        if(tag.startsWith("W/")){
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        var separator = tag.indexOf(ProductJsonService.ETAG_SEPARATOR);
+        if(separator >= 0){
+            tag = tag.substring(0, separator);
+        }
+        try{
+            return Long.valueOf(tag);
+        } catch (NumberFormatException ex){
+            throw new PreconditionFailedException("The If-Match header must carry a product version.");
+        }
+    }
+
+    private ResponseEntity<byte[]> json(byte[] body){
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
 }
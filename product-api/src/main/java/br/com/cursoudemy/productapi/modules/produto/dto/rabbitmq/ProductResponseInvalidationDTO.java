@@ -0,0 +1,16 @@
+package br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ProductResponseInvalidationDTO {
+
+    private String origin;
+    private List<String> tags;
+}
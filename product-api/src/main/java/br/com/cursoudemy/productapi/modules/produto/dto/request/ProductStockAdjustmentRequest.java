@@ -0,0 +1,19 @@
+package br.com.cursoudemy.productapi.modules.produto.dto.request;
+
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductQuantityDTO;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStockAdjustmentRequest {
+
+    @JsonProperty("batch_id")
+    private String batchId;
+    private List<ProductQuantityDTO> adjustments;
+}
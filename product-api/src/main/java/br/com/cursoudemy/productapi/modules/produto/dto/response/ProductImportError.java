@@ -0,0 +1,14 @@
+package br.com.cursoudemy.productapi.modules.produto.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportError {
+
+    private Long line;
+    private String message;
+}
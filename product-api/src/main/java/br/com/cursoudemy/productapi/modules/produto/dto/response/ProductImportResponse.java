@@ -0,0 +1,20 @@
+package br.com.cursoudemy.productapi.modules.produto.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponse {
+
+    private Long imported;
+    private Long failed;
+    private List<ProductImportError> errors;
+    @JsonProperty("errors_truncated")
+    private boolean errorsTruncated;
+}
@@ -28,6 +28,30 @@ public class ProductResponse {
     private LocalDateTime createdAt;
     private SupplierResponse supplier;
     private CategoryResponse category;
+    private Long version;
+
+    // Target of the JPQL constructor expressions in IProductRepository.
+    public ProductResponse(Integer id,
+                           String name,
+                           Integer quantityAvailable,
+                           LocalDateTime createdAt,
+                           Long version,
+                           Integer supplierId,
+                           String supplierName,
+                           Integer categoryId,
+                           String categoryDescription){
+        this.id = id;
+        this.name = name;
+        this.quantityAvailable = quantityAvailable;
+        this.createdAt = createdAt;
+        this.version = version;
+        supplier = new SupplierResponse();
+        supplier.setId(supplierId);
+        supplier.setName(supplierName);
+        category = new CategoryResponse();
+        category.setId(categoryId);
+        category.setDescription(categoryDescription);
+    }
 
     public static ProductResponse of(Product product){
         return ProductResponse
@@ -38,6 +62,7 @@ public class ProductResponse {
                 .createdAt(product.getCreatedAt())
                 .supplier(SupplierResponse.of(product.getSupplier()))
                 .category(CategoryResponse.of(product.getCategory()))
+                .version(product.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,20 @@
+package br.com.cursoudemy.productapi.modules.produto.dto.response;
+
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.ProductStockLevel;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStockAdjustmentResponse {
+
+    @JsonProperty("batch_id")
+    private String batchId;
+    private boolean replayed;
+    private List<ProductStockLevel> products;
+}
@@ -0,0 +1,45 @@
+package br.com.cursoudemy.productapi.modules.produto.dto.response;
+
+import br.com.cursoudemy.productapi.modules.produto.enums.StockRejectReason;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductStockAvailability {
+
+    @JsonProperty("product_id")
+    private Integer productId;
+    private Integer requested;
+    private Integer available;
+    private Integer shortfall;
+    private StockRejectReason reason;
+
+    public static ProductStockAvailability of(Integer productId, Integer requested, Integer available){
+        if(available == null){
+            return new ProductStockAvailability(productId, requested, 0, requested, StockRejectReason.PRODUCT_NOT_FOUND);
+        }
+        var shortfall = Math.max(0, requested - available);
+        return ProductStockAvailability
+                .builder()
+                .productId(productId)
+                .requested(requested)
+                .available(available)
+                .shortfall(shortfall)
+                .reason(shortfall > 0 ? StockRejectReason.OUT_OF_STOCK : null)
+                .build();
+    }
+
+    @JsonIgnore
+    public boolean isFulfillable(){
+        return reason == null;
+    }
+}
@@ -0,0 +1,30 @@
+package br.com.cursoudemy.productapi.modules.produto.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Optional;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStockReport {
+
+    @JsonProperty("in_stock")
+    private boolean inStock;
+    private List<ProductStockAvailability> products;
+
+    public static ProductStockReport of(List<ProductStockAvailability> products){
+        return new ProductStockReport(products.stream().allMatch(ProductStockAvailability::isFulfillable), products);
+    }
+
+    public Optional<ProductStockAvailability> firstShortage(){
+        return products
+                .stream()
+                .filter(product -> !product.isFulfillable())
+                .findFirst();
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.cursoudemy.productapi.modules.produto.dto.stock;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStockLevel {
+
+    private Integer productId;
+    private Integer quantityAvailable;
+}
@@ -0,0 +1,17 @@
+package br.com.cursoudemy.productapi.modules.produto.dto.stock;
+
+import br.com.cursoudemy.productapi.modules.produto.enums.StockRejectReason;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationReject {
+
+    private Integer productId;
+    private Integer requested;
+    private Integer available;
+    private StockRejectReason reason;
+}
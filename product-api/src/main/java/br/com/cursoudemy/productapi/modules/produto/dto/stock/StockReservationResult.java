@@ -0,0 +1,24 @@
+package br.com.cursoudemy.productapi.modules.produto.dto.stock;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationResult {
+
+    private boolean approved;
+    private List<StockReservationReject> rejects;
+
+    public static StockReservationResult approved(){
+        return new StockReservationResult(true, List.of());
+    }
+
+    public static StockReservationResult rejected(List<StockReservationReject> rejects){
+        return new StockReservationResult(false, rejects);
+    }
+}
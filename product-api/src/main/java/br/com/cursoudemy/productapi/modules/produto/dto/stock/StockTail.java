@@ -0,0 +1,15 @@
+package br.com.cursoudemy.productapi.modules.produto.dto.stock;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockTail {
+
+    private Integer productId;
+    private Long delta;
+    private Long lastMovementId;
+}
@@ -0,0 +1,7 @@
+package br.com.cursoudemy.productapi.modules.produto.enums;
+
+public enum ProductImportFormat {
+
+    NDJSON,
+    CSV
+}
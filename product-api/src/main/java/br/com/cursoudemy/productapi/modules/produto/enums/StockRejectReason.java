@@ -0,0 +1,7 @@
+package br.com.cursoudemy.productapi.modules.produto.enums;
+
+public enum StockRejectReason {
+
+    PRODUCT_NOT_FOUND,
+    OUT_OF_STOCK
+}
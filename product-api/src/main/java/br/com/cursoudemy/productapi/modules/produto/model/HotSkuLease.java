@@ -0,0 +1,50 @@
+package br.com.cursoudemy.productapi.modules.produto.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "HOT_SKU_LEASE")
+public class HotSkuLease {
+
+    @Id
+    @Column(name = "PRODUCT_ID", nullable = false)
+    private Integer productId;
+
+    @Column(name = "OWNER", nullable = false)
+    private String owner;
+
+    // Units taken off the product row and held in the owner's memory, as of its last flush.
+    @Column(name = "ESCROWED", nullable = false)
+    private Integer escrowed;
+
+    @Column(name = "EXPIRES_AT", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "UPDATED_AT", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public static HotSkuLease of(Integer productId, String owner, LocalDateTime expiresAt){
+        return new HotSkuLease(productId, owner, 0, expiresAt, LocalDateTime.now());
+    }
+
+    public boolean isHeldByOther(String owner, LocalDateTime now){
+        return !this.owner.equals(owner) && expiresAt.isAfter(now);
+    }
+
+    public void takeOver(String owner, LocalDateTime expiresAt){
+        if(!this.owner.equals(owner)){
+            escrowed = 0;
+        }
+        this.owner = owner;
+        this.expiresAt = expiresAt;
+        updatedAt = LocalDateTime.now();
+    }
+}
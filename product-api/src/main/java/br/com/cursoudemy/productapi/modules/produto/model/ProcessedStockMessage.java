@@ -0,0 +1,37 @@
+package br.com.cursoudemy.productapi.modules.produto.model;
+
+import br.com.cursoudemy.productapi.modules.sales.dto.SalesConfirmationDTO;
+import br.com.cursoudemy.productapi.modules.sales.enums.SalesStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "PROCESSED_STOCK_MESSAGE",
+       indexes = @Index(name = "IDX_PROCESSED_STOCK_MESSAGE_PROCESSED_AT", columnList = "PROCESSED_AT"))
+public class ProcessedStockMessage {
+
+    @Id
+    @Column(name = "SALES_ID", nullable = false)
+    private String salesId;
+
+    @Column(name = "TRANSACTION_ID")
+    private String transactionid;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", nullable = false)
+    private SalesStatus status;
+
+    @Column(name = "PROCESSED_AT", nullable = false)
+    private LocalDateTime processedAt;
+
+    public SalesConfirmationDTO toConfirmation(){
+        return new SalesConfirmationDTO(salesId, status, transactionid);
+    }
+}
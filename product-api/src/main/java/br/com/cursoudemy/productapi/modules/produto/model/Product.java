@@ -20,24 +20,32 @@ import java.time.LocalDateTime;
 @Table(name = "PRODUCT")
 public class Product {
 
+    // A pooled sequence lets Hibernate batch inserts; it starts past the IDs seeded by import.sql.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_sequence")
+    @SequenceGenerator(name = "product_sequence", sequenceName = "PRODUCT_SEQ", initialValue = 1100, allocationSize = 50)
     private Integer id;
 
     @Column(name = "NAME", nullable = false)
     private String name;
 
-    @ManyToOne
+    // Lists read ProductResponse projections, so the relations are only loaded where an entity needs them.
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "FK_CATEGORY", nullable = false)
     private Category category;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "FK_SUPPLIER", nullable = false)
     private Supplier supplier;
 
     @Column(name = "QUANTITY_AVAILABLE", nullable = false)
     private Integer quantityAvailable;
 
+    // Bumped by Hibernate on entity updates and by every set-based stock UPDATE.
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private Long version;
+
     @Column(name = "CREATED_AT", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -58,6 +66,15 @@ public class Product {
                 .build();
     }
 
+    public void update(ProductRequest request,
+                       Supplier supplier,
+                       Category category){
+        name = request.getName();
+        quantityAvailable = request.getQuantityAvailable();
+        this.supplier = supplier;
+        this.category = category;
+    }
+
     public void updateStock(Integer quantity){
         quantityAvailable = quantityAvailable - quantity;
     }
@@ -0,0 +1,27 @@
+package br.com.cursoudemy.productapi.modules.produto.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "STOCK_ADJUSTMENT_BATCH")
+public class StockAdjustmentBatch {
+
+    @Id
+    @Column(name = "BATCH_ID", nullable = false)
+    private String batchId;
+
+    // The response returned when the batch was applied, replayed as is for retries.
+    @Column(name = "RESPONSE", columnDefinition = "TEXT")
+    private String response;
+
+    @Column(name = "PROCESSED_AT", nullable = false)
+    private LocalDateTime processedAt;
+}
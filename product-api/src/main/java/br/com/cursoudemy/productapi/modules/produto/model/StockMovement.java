@@ -0,0 +1,45 @@
+package br.com.cursoudemy.productapi.modules.produto.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "STOCK_MOVEMENT",
+       indexes = @Index(name = "IDX_STOCK_MOVEMENT_PRODUCT", columnList = "PRODUCT_ID, ID"))
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "PRODUCT_ID", nullable = false, updatable = false)
+    private Integer productId;
+
+    @Column(name = "DELTA", nullable = false, updatable = false)
+    private Integer delta;
+
+    @Column(name = "SALES_ID", updatable = false)
+    private String salesId;
+
+    @Column(name = "CREATED_AT", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public static StockMovement of(Integer productId, Integer delta, String salesId){
+        return StockMovement
+                .builder()
+                .productId(productId)
+                .delta(delta)
+                .salesId(salesId)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package br.com.cursoudemy.productapi.modules.produto.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "STOCK_SNAPSHOT")
+public class StockSnapshot {
+
+    @Id
+    @Column(name = "PRODUCT_ID", nullable = false)
+    private Integer productId;
+
+    @Column(name = "QUANTITY", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "LAST_MOVEMENT_ID", nullable = false)
+    private Long lastMovementId;
+
+    @Column(name = "UPDATED_AT", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public void fold(Long delta, Long lastMovementId){
+        quantity = Math.toIntExact(quantity + delta);
+        this.lastMovementId = lastMovementId;
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,28 @@
+package br.com.cursoudemy.productapi.modules.produto.rabbitmq;
+
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductResponseInvalidationDTO;
+import br.com.cursoudemy.productapi.modules.produto.service.ProductResponseCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.util.ObjectUtils.isEmpty;
+
+@Component
+@RequiredArgsConstructor
+public class ProductResponseInvalidationListener {
+
+    private final ProductResponseCache productResponseCache;
+
+    private final ProductResponseInvalidationSender productResponseInvalidationSender;
+
+    // Every instance binds its own queue to the fanout, so its own invalidations come back and are skipped.
+    @RabbitListener(queues = "#{productResponseInvalidationMq.name}",
+                    autoStartup = "${app-config.rabbit.listener.auto-startup}")
+    public void receiveProductResponseInvalidation(ProductResponseInvalidationDTO invalidation){
+        if(isEmpty(invalidation.getTags()) || productResponseInvalidationSender.getOrigin().equals(invalidation.getOrigin())){
+            return;
+        }
+        productResponseCache.invalidateBroadcast(invalidation.getTags());
+    }
+}
@@ -0,0 +1,40 @@
+package br.com.cursoudemy.productapi.modules.produto.rabbitmq;
+
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductResponseInvalidationDTO;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+// Fans the tags this instance invalidated out to every other instance's response cache. A lost message only leaves
+// the other instances stale until their entries expire.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductResponseInvalidationSender {
+
+    private static final String NO_ROUTING_KEY = "";
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Getter
+    private final String origin = UUID.randomUUID().toString();
+
+    @Value("${app-config.rabbit.exchange.product-response-invalidation}")
+    private String productResponseInvalidationExchange;
+
+    public void send(Collection<String> tags){
+        try{
+            rabbitTemplate.convertAndSend(productResponseInvalidationExchange, NO_ROUTING_KEY,
+                    new ProductResponseInvalidationDTO(origin, List.copyOf(tags)));
+        } catch (Exception ex){
+            log.warn("Could not broadcast the invalidation of {} product response tags: {}", tags.size(), ex.getMessage());
+        }
+    }
+}
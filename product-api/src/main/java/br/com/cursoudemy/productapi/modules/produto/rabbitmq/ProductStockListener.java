@@ -1,28 +1,126 @@
 package br.com.cursoudemy.productapi.modules.produto.rabbitmq;
 
+import br.com.cursoudemy.productapi.config.logging.LogSampler;
+import br.com.cursoudemy.productapi.config.logging.MdcFilter;
 import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductStockDTO;
 import br.com.cursoudemy.productapi.modules.produto.service.ProductService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class ProductStockListener {
 
+    private static final String PROCESSING_METRIC = "product.stock.message.processing";
+    private static final String OUTCOME_METRIC = "product.stock.messages";
+    private static final String BATCH_MODE = "batch";
+    private static final String SINGLE_MODE = "single";
+    private static final String REQUEUED_OUTCOME = "REQUEUED";
+    private static final String LOG_ROUTE = "product-stock.listener";
+
     private final ProductService productService;
 
-    private final ObjectMapper objectMapper;
+    private final LogSampler logSampler;
+
+    private final MeterRegistry meterRegistry;
+
+    @RabbitListener(queues = "${app-config.rabbit.queue.product-stock}",
+                    containerFactory = "productStockContainerFactory",
+                    autoStartup = "${app-config.rabbit.listener.auto-startup}")
+    public void receiveProductStockMessages(List<Message<ProductStockDTO>> messages, Channel channel) throws IOException {
+        for(var message : messages){
+            MDC.put(MdcFilter.TRANSACTION_ID, message.getPayload().getTransactionid());
+            try{
+                log.info("Receiving message with data: {} and TransactionID: {}",
+                        logSampler.payload(LOG_ROUTE, message.getPayload()),
+                        message.getPayload().getTransactionid());
+            } finally {
+                MDC.remove(MdcFilter.TRANSACTION_ID);
+            }
+        }
+        var sample = Timer.start(meterRegistry);
+        try{
+            productService.reserveProductsStock(messages
+                    .stream()
+                    .map(Message::getPayload)
+                    .collect(Collectors.toList()))
+                    .forEach(confirmation -> countOutcome(confirmation.getStatus().name()));
+            sample.stop(processingTimer(BATCH_MODE));
+        } catch (Exception ex){
+            sample.stop(processingTimer(BATCH_MODE));
+            log.error("Error while trying to update stock for a batch of {} messages, retrying one by one: {}",
+                    messages.size(), ex.getMessage(), ex);
+            for(var message : messages){
+                receiveProductStockMessage(message, channel);
+            }
+            return;
+        }
+        for(var message : messages){
+            channel.basicAck(getDeliveryTag(message), false);
+        }
+    }
+
+    private void receiveProductStockMessage(Message<ProductStockDTO> message, Channel channel) throws IOException {
+        var productStockDTO = message.getPayload();
+        var sample = Timer.start(meterRegistry);
+        MDC.put(MdcFilter.TRANSACTION_ID, productStockDTO.getTransactionid());
+        try{
+            var confirmation = productService.reserveProductStock(productStockDTO);
+            sample.stop(processingTimer(SINGLE_MODE));
+            countOutcome(confirmation.getStatus().name());
+            channel.basicAck(getDeliveryTag(message), false);
+        } catch (Exception ex){
+            sample.stop(processingTimer(SINGLE_MODE));
+            if(!isRedelivered(message)){
+                countOutcome(REQUEUED_OUTCOME);
+                log.error("Error while trying to update stock for salesId {}, message will be requeued: {}",
+                        productStockDTO.getSalesId(), ex.getMessage(), ex);
+                channel.basicNack(getDeliveryTag(message), false, true);
+                return;
+            }
+            log.error("Error while trying to update stock for redelivered salesId {}: {}",
+                    productStockDTO.getSalesId(), ex.getMessage(), ex);
+            var confirmation = productService.rejectProductStock(productStockDTO);
+            countOutcome(confirmation.getStatus().name());
+            channel.basicAck(getDeliveryTag(message), false);
+        } finally {
+            MDC.remove(MdcFilter.TRANSACTION_ID);
+        }
+    }
+
+    private Timer processingTimer(String mode){
+        return Timer
+                .builder(PROCESSING_METRIC)
+                .description("Time spent reserving stock for product-stock messages")
+                .tag("mode", mode)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void countOutcome(String outcome){
+        meterRegistry
+                .counter(OUTCOME_METRIC, "outcome", outcome)
+                .increment();
+    }
+
+    private long getDeliveryTag(Message<?> message){
+        return message.getHeaders().get(AmqpHeaders.DELIVERY_TAG, Long.class);
+    }
 
-    @RabbitListener(queues = "${app-config.rabbit.queue.product-stock}")
-    public void receiveProductStockMessage(ProductStockDTO productStockDTO) throws JsonProcessingException {
-        log.info("Receiving message with data: {} and TransactionID: {}", objectMapper
-                .writeValueAsString(productStockDTO),
-                productStockDTO.getTransactionid());
-        productService.updateProductStock(productStockDTO);
+    private boolean isRedelivered(Message<?> message){
+        return Boolean.TRUE.equals(message.getHeaders().get(AmqpHeaders.REDELIVERED, Boolean.class));
     }
 }
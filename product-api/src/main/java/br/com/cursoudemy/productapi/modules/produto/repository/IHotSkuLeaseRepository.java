@@ -0,0 +1,38 @@
+package br.com.cursoudemy.productapi.modules.produto.repository;
+
+import br.com.cursoudemy.productapi.modules.produto.model.HotSkuLease;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IHotSkuLeaseRepository extends JpaRepository<HotSkuLease, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM HotSkuLease l WHERE l.productId = :productId")
+    Optional<HotSkuLease> findForUpdate(@Param("productId") Integer productId);
+
+    @Modifying
+    @Query("UPDATE HotSkuLease l SET l.escrowed = l.escrowed + :quantity, l.updatedAt = CURRENT_TIMESTAMP "
+            + "WHERE l.productId = :productId AND l.owner = :owner")
+    int addEscrow(@Param("productId") Integer productId,
+                  @Param("owner") String owner,
+                  @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("UPDATE HotSkuLease l SET l.escrowed = :escrowed, l.expiresAt = :expiresAt, l.updatedAt = CURRENT_TIMESTAMP "
+            + "WHERE l.productId = :productId AND l.owner = :owner")
+    int renew(@Param("productId") Integer productId,
+              @Param("owner") String owner,
+              @Param("escrowed") Integer escrowed,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM HotSkuLease l WHERE l.productId = :productId AND l.owner = :owner")
+    int release(@Param("productId") Integer productId, @Param("owner") String owner);
+}
@@ -0,0 +1,29 @@
+package br.com.cursoudemy.productapi.modules.produto.repository;
+
+import br.com.cursoudemy.productapi.modules.produto.model.ProcessedStockMessage;
+import br.com.cursoudemy.productapi.modules.sales.enums.SalesStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface IProcessedStockMessageRepository extends JpaRepository<ProcessedStockMessage, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO PROCESSED_STOCK_MESSAGE (SALES_ID, TRANSACTION_ID, STATUS, PROCESSED_AT) "
+            + "VALUES (:salesId, :transactionid, :status, CURRENT_TIMESTAMP) ON CONFLICT (SALES_ID) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("salesId") String salesId,
+                       @Param("transactionid") String transactionid,
+                       @Param("status") String status);
+
+    @Modifying
+    @Query("UPDATE ProcessedStockMessage m SET m.status = :status WHERE m.salesId = :salesId")
+    int updateStatus(@Param("salesId") String salesId, @Param("status") SalesStatus status);
+
+    @Modifying
+    @Query("DELETE FROM ProcessedStockMessage m WHERE m.processedAt < :processedBefore")
+    int deleteProcessedBefore(@Param("processedBefore") LocalDateTime processedBefore);
+}
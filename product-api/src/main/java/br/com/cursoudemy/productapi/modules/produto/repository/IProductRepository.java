@@ -1,16 +1,77 @@
 package br.com.cursoudemy.productapi.modules.produto.repository;
 
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductResponse;
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.ProductStockLevel;
 import br.com.cursoudemy.productapi.modules.produto.model.Product;
 import br.com.cursoudemy.productapi.modules.supplier.model.Supplier;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface IProductRepository extends JpaRepository<Product, Integer> {
+public interface IProductRepository extends JpaRepository<Product, Integer>, IProductStockRepository {
+
+    String SELECT_RESPONSE = "SELECT new br.com.cursoudemy.productapi.modules.produto.dto.response.ProductResponse("
+            + "p.id, p.name, p.quantityAvailable, p.createdAt, p.version, s.id, s.name, c.id, c.description) "
+            + "FROM Product p JOIN p.supplier s JOIN p.category c ";
 
-    List<Product> findByNameIgnoreCaseContaining(String name);
-    List<Product> findByCategoryId(Integer id);
-    List<Product> findBySupplierId(Integer id);
     Boolean existsByCategoryId(Integer id);
     Boolean existsBySupplierId(Integer id);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.version = p.version + 1, p.quantityAvailable = :quantityAvailable WHERE p.id = :id")
+    int updateQuantityAvailable(@Param("id") Integer id, @Param("quantityAvailable") Integer quantityAvailable);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.version = p.version + 1, p.quantityAvailable = p.quantityAvailable + :quantity WHERE p.id = :id")
+    int increaseQuantityAvailable(@Param("id") Integer id, @Param("quantity") Integer quantity);
+
+    @Query("SELECT p.id FROM Product p ORDER BY p.id")
+    List<Integer> findAllIds();
+
+    @EntityGraph(attributePaths = {"category", "supplier"})
+    Optional<Product> findWithCategoryAndSupplierById(Integer id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAll();
+
+    @Query(SELECT_RESPONSE + "WHERE p.id = :id")
+    Optional<ProductResponse> findResponseById(@Param("id") Integer id);
+
+    @Query(SELECT_RESPONSE + "WHERE p.id IN :ids")
+    List<ProductResponse> findResponsesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query(SELECT_RESPONSE + "WHERE c.id = :categoryId ORDER BY p.id")
+    List<ProductResponse> findResponsesByCategoryId(@Param("categoryId") Integer categoryId);
+
+    @Query(SELECT_RESPONSE + "WHERE s.id = :supplierId ORDER BY p.id")
+    List<ProductResponse> findResponsesBySupplierId(@Param("supplierId") Integer supplierId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_RESPONSE + "ORDER BY p.id")
+    Stream<ProductResponse> streamAllResponses();
+
+    @Query(SELECT_RESPONSE + "WHERE p.id > :after ORDER BY p.id")
+    List<ProductResponse> findResponsePageAfter(@Param("after") Integer after, Pageable pageable);
+
+    @Query("SELECT new br.com.cursoudemy.productapi.modules.produto.dto.stock.ProductStockLevel(p.id, p.quantityAvailable) "
+            + "FROM Product p WHERE p.id IN :ids")
+    List<ProductStockLevel> findStockLevelsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query(value = "SELECT ID FROM PRODUCT WHERE NAME ILIKE CONCAT('%', :query, '%') OR NAME % :query "
+            + "ORDER BY SIMILARITY(NAME, :query) DESC, ID LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Integer> searchIdsByName(@Param("query") String query,
+                                  @Param("limit") Integer limit,
+                                  @Param("offset") Integer offset);
 }
@@ -0,0 +1,14 @@
+package br.com.cursoudemy.productapi.modules.produto.repository;
+
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductQuantityDTO;
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.StockReservationResult;
+
+import java.util.List;
+import java.util.SortedMap;
+
+public interface IProductStockRepository {
+
+    StockReservationResult reserveStock(List<ProductQuantityDTO> products);
+
+    StockReservationResult adjustStock(SortedMap<Integer, Integer> deltas);
+}
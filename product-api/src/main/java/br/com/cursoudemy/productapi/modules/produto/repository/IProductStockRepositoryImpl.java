@@ -0,0 +1,141 @@
+package br.com.cursoudemy.productapi.modules.produto.repository;
+
+import br.com.cursoudemy.productapi.config.exception.ValidationException;
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductQuantityDTO;
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.StockReservationReject;
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.StockReservationResult;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static br.com.cursoudemy.productapi.modules.produto.enums.StockRejectReason.OUT_OF_STOCK;
+import static br.com.cursoudemy.productapi.modules.produto.enums.StockRejectReason.PRODUCT_NOT_FOUND;
+
+public class IProductStockRepositoryImpl implements IProductStockRepository {
+
+    private static final Integer ZERO = 0;
+    private static final Integer ADJUSTMENT_CHUNK_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public StockReservationResult reserveStock(List<ProductQuantityDTO> products){
+        var requested = groupRequestedQuantities(products);
+        var available = findAvailableForUpdate(requested);
+        var rejects = new ArrayList<StockReservationReject>();
+        requested.forEach((productId, quantity) -> {
+            var quantityAvailable = available.get(productId);
+            if(quantityAvailable == null){
+                rejects.add(new StockReservationReject(productId, quantity, ZERO, PRODUCT_NOT_FOUND));
+            } else if(quantity > quantityAvailable){
+                rejects.add(new StockReservationReject(productId, quantity, quantityAvailable, OUT_OF_STOCK));
+            }
+        });
+        if(!rejects.isEmpty()){
+            return StockReservationResult.rejected(rejects);
+        }
+        if(applyDecrements(requested) != requested.size()){
+            throw new ValidationException("The stock could not be reserved for all the sales products.");
+        }
+        return StockReservationResult.approved();
+    }
+
+    // Chunked so the CASE and IN lists stay well below the bind parameter limit; all chunks share the caller's transaction.
+    @Override
+    @Transactional
+    public StockReservationResult adjustStock(SortedMap<Integer, Integer> deltas){
+        var rejects = new ArrayList<StockReservationReject>();
+        var chunk = new TreeMap<Integer, Integer>();
+        for(var entry : deltas.entrySet()){
+            chunk.put(entry.getKey(), entry.getValue());
+            if(chunk.size() == ADJUSTMENT_CHUNK_SIZE){
+                rejects.addAll(adjustChunk(chunk));
+                chunk.clear();
+            }
+        }
+        if(!chunk.isEmpty()){
+            rejects.addAll(adjustChunk(chunk));
+        }
+        return rejects.isEmpty()
+                ? StockReservationResult.approved()
+                : StockReservationResult.rejected(rejects);
+    }
+
+    private List<StockReservationReject> adjustChunk(TreeMap<Integer, Integer> deltas){
+        var available = findAvailableForUpdate(deltas);
+        var rejects = new ArrayList<StockReservationReject>();
+        deltas.forEach((productId, delta) -> {
+            var quantityAvailable = available.get(productId);
+            if(quantityAvailable == null){
+                rejects.add(new StockReservationReject(productId, -delta, ZERO, PRODUCT_NOT_FOUND));
+            } else if(quantityAvailable + delta < ZERO){
+                rejects.add(new StockReservationReject(productId, -delta, quantityAvailable, OUT_OF_STOCK));
+            }
+        });
+        if(rejects.isEmpty()){
+            var query = entityManager.createNativeQuery(
+                    "UPDATE PRODUCT SET VERSION = VERSION + 1, QUANTITY_AVAILABLE = QUANTITY_AVAILABLE + " + quantityCase(deltas.size())
+                            + " WHERE ID IN (:ids)");
+            bindQuantities(query, deltas)
+                    .setParameter("ids", deltas.keySet())
+                    .executeUpdate();
+        }
+        return rejects;
+    }
+
+    // Ordered by product ID so concurrent reservations always lock rows in the same order.
+    private TreeMap<Integer, Integer> groupRequestedQuantities(List<ProductQuantityDTO> products){
+        var requested = new TreeMap<Integer, Integer>();
+        products.forEach(product -> requested.merge(product.getProductId(), product.getQuantity(), Integer::sum));
+        return requested;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Integer, Integer> findAvailableForUpdate(TreeMap<Integer, Integer> requested){
+        List<Object[]> rows = entityManager
+                .createNativeQuery("SELECT ID, QUANTITY_AVAILABLE FROM PRODUCT WHERE ID IN (:ids) ORDER BY ID FOR UPDATE")
+                .setParameter("ids", requested.keySet())
+                .getResultList();
+        var available = new HashMap<Integer, Integer>();
+        rows.forEach(row -> available.put(((Number) row[0]).intValue(), ((Number) row[1]).intValue()));
+        return available;
+    }
+
+    private int applyDecrements(TreeMap<Integer, Integer> requested){
+        var quantityCase = quantityCase(requested.size());
+        var query = entityManager.createNativeQuery(
+                "UPDATE PRODUCT SET VERSION = VERSION + 1, QUANTITY_AVAILABLE = QUANTITY_AVAILABLE - " + quantityCase
+                        + " WHERE ID IN (:ids) AND QUANTITY_AVAILABLE >= " + quantityCase);
+        return bindQuantities(query, requested)
+                .setParameter("ids", requested.keySet())
+                .executeUpdate();
+    }
+
+    private String quantityCase(int size){
+        var quantityCase = new StringBuilder("CASE ID");
+        for(var index = 0; index < size; index++){
+            quantityCase.append(" WHEN :id").append(index).append(" THEN :qty").append(index);
+        }
+        return quantityCase.append(" END").toString();
+    }
+
+    private Query bindQuantities(Query query, Map<Integer, Integer> quantities){
+        var index = 0;
+        for(var entry : quantities.entrySet()){
+            query.setParameter("id" + index, entry.getKey());
+            query.setParameter("qty" + index, entry.getValue());
+            index++;
+        }
+        return query;
+    }
+}
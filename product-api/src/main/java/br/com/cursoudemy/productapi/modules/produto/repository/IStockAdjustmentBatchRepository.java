@@ -0,0 +1,20 @@
+package br.com.cursoudemy.productapi.modules.produto.repository;
+
+import br.com.cursoudemy.productapi.modules.produto.model.StockAdjustmentBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface IStockAdjustmentBatchRepository extends JpaRepository<StockAdjustmentBatch, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO STOCK_ADJUSTMENT_BATCH (BATCH_ID, PROCESSED_AT) "
+            + "VALUES (:batchId, CURRENT_TIMESTAMP) ON CONFLICT (BATCH_ID) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("batchId") String batchId);
+
+    @Modifying
+    @Query("UPDATE StockAdjustmentBatch b SET b.response = :response WHERE b.batchId = :batchId")
+    int updateResponse(@Param("batchId") String batchId, @Param("response") String response);
+}
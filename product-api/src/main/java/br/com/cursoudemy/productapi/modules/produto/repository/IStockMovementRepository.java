@@ -0,0 +1,28 @@
+package br.com.cursoudemy.productapi.modules.produto.repository;
+
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.StockTail;
+import br.com.cursoudemy.productapi.modules.produto.model.StockMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface IStockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    // Movements appended after the snapshot was last folded.
+    @Query("SELECT new br.com.cursoudemy.productapi.modules.produto.dto.stock.StockTail(m.productId, SUM(m.delta), MAX(m.id)) "
+            + "FROM StockMovement m, StockSnapshot s "
+            + "WHERE s.productId = m.productId AND m.productId IN :productIds AND m.id > s.lastMovementId "
+            + "GROUP BY m.productId")
+    List<StockTail> findTails(@Param("productIds") Collection<Integer> productIds);
+
+    @Query("SELECT DISTINCT m.productId FROM StockMovement m, StockSnapshot s "
+            + "WHERE s.productId = m.productId AND m.id > s.lastMovementId")
+    List<Integer> findProductsWithTail(Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM StockMovement m WHERE m.productId = :productId")
+    Long findLastMovementId(@Param("productId") Integer productId);
+}
@@ -0,0 +1,33 @@
+package br.com.cursoudemy.productapi.modules.produto.repository;
+
+import br.com.cursoudemy.productapi.modules.produto.model.StockSnapshot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface IStockSnapshotRepository extends JpaRepository<StockSnapshot, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StockSnapshot s WHERE s.productId IN :productIds ORDER BY s.productId")
+    List<StockSnapshot> findAllForUpdate(@Param("productIds") Collection<Integer> productIds);
+
+    // Seeds the snapshot from the product row the first time a product is seen by the ledger.
+    @Modifying
+    @Query(value = "INSERT INTO STOCK_SNAPSHOT (PRODUCT_ID, QUANTITY, LAST_MOVEMENT_ID, UPDATED_AT) "
+            + "SELECT ID, QUANTITY_AVAILABLE, 0, CURRENT_TIMESTAMP FROM PRODUCT WHERE ID IN (:productIds) "
+            + "ON CONFLICT (PRODUCT_ID) DO NOTHING",
+           nativeQuery = true)
+    int insertFromProducts(@Param("productIds") Collection<Integer> productIds);
+
+    @Query(value = "SELECT p.ID, COALESCE(s.QUANTITY + COALESCE((SELECT SUM(m.DELTA) FROM STOCK_MOVEMENT m "
+            + "WHERE m.PRODUCT_ID = s.PRODUCT_ID AND m.ID > s.LAST_MOVEMENT_ID), 0), p.QUANTITY_AVAILABLE) "
+            + "FROM PRODUCT p LEFT JOIN STOCK_SNAPSHOT s ON s.PRODUCT_ID = p.ID WHERE p.ID IN (:productIds)",
+           nativeQuery = true)
+    List<Object[]> findAvailable(@Param("productIds") Collection<Integer> productIds);
+}
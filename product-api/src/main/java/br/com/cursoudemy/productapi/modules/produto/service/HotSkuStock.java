@@ -0,0 +1,98 @@
+package br.com.cursoudemy.productapi.modules.produto.service;
+
+import lombok.Getter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Escrowed units of one hot product, spread over stripes so concurrent reservations rarely CAS the same slot.
+public class HotSkuStock {
+
+    // Keeps each stripe on its own cache line.
+    private static final int PADDING = 16;
+
+    @Getter
+    private final Integer productId;
+
+    private final int stripes;
+
+    private final AtomicIntegerArray counters;
+
+    private volatile long ownedUntil;
+
+    public HotSkuStock(Integer productId, int stripes){
+        this.productId = productId;
+        this.stripes = stripes;
+        counters = new AtomicIntegerArray(stripes * PADDING);
+    }
+
+    public boolean isOwned(){
+        return System.currentTimeMillis() < ownedUntil;
+    }
+
+    public void own(long until){
+        ownedUntil = until;
+    }
+
+    public void disown(){
+        ownedUntil = 0;
+    }
+
+    // All or nothing: units taken from some stripes go back when the others cannot cover the rest.
+    public boolean tryTake(int quantity){
+        var start = ThreadLocalRandom.current().nextInt(stripes);
+        var missing = quantity;
+        for(var i = 0; i < stripes && missing > 0; i++){
+            missing -= takeFrom((start + i) % stripes, missing);
+        }
+        if(missing == 0){
+            return true;
+        }
+        add(quantity - missing);
+        return false;
+    }
+
+    public void add(int quantity){
+        if(quantity <= 0){
+            return;
+        }
+        var share = quantity / stripes;
+        var remainder = quantity % stripes;
+        for(var i = 0; i < stripes; i++){
+            var units = i < remainder ? share + 1 : share;
+            if(units > 0){
+                counters.addAndGet(i * PADDING, units);
+            }
+        }
+    }
+
+    public int total(){
+        var total = 0;
+        for(var i = 0; i < stripes; i++){
+            total += counters.get(i * PADDING);
+        }
+        return total;
+    }
+
+    public int drain(){
+        var drained = 0;
+        for(var i = 0; i < stripes; i++){
+            drained += counters.getAndSet(i * PADDING, 0);
+        }
+        return drained;
+    }
+
+    private int takeFrom(int stripe, int wanted){
+        var index = stripe * PADDING;
+        while(true){
+            var current = counters.get(index);
+            if(current <= 0){
+                return 0;
+            }
+            var taken = Math.min(current, wanted);
+            if(counters.compareAndSet(index, current, current - taken)){
+                return taken;
+            }
+        }
+    }
+}
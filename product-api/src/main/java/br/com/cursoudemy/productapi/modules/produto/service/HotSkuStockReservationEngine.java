@@ -0,0 +1,380 @@
+package br.com.cursoudemy.productapi.modules.produto.service;
+
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductQuantityDTO;
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.StockReservationReject;
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.StockReservationResult;
+import br.com.cursoudemy.productapi.modules.produto.model.HotSkuLease;
+import br.com.cursoudemy.productapi.modules.produto.repository.IHotSkuLeaseRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static br.com.cursoudemy.productapi.modules.produto.enums.StockRejectReason.OUT_OF_STOCK;
+
+// Sells flagged products from units escrowed in memory, so their reservations never queue on the product row.
+// Escrow is taken off the stock before it is sold here, so no other instance can sell the same units.
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(name = "app-config.stock.hot-sku.enabled", havingValue = "true")
+public class HotSkuStockReservationEngine implements StockReservationEngine, MeterBinder {
+
+    private static final String ESCROW_REFERENCE = "hot-sku-escrow:";
+
+    private static final String LOCKED_PRODUCTS = HotSkuStockReservationEngine.class.getName() + ".lockedProducts";
+
+    private final StockReservationEngine delegate;
+
+    private final IHotSkuLeaseRepository iHotSkuLeaseRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ProductResponseCache productResponseCache;
+
+    private final Map<Integer, HotSkuStock> stocks;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    private final Integer escrowChunk;
+
+    private final Long leaseTtl;
+
+    public HotSkuStockReservationEngine(@Qualifier(StockReservationEngine.BASE) StockReservationEngine delegate,
+                                        IHotSkuLeaseRepository iHotSkuLeaseRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        ProductResponseCache productResponseCache,
+                                        @Value("${app-config.stock.hot-sku.product-ids}") List<Integer> productIds,
+                                        @Value("${app-config.stock.hot-sku.stripes}") Integer stripes,
+                                        @Value("${app-config.stock.hot-sku.escrow-chunk}") Integer escrowChunk,
+                                        @Value("${app-config.stock.hot-sku.lease-ttl}") Long leaseTtl){
+        this.delegate = delegate;
+        this.iHotSkuLeaseRepository = iHotSkuLeaseRepository;
+        this.productResponseCache = productResponseCache;
+        this.escrowChunk = escrowChunk;
+        this.leaseTtl = leaseTtl;
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        stocks = productIds
+                .stream()
+                .distinct()
+                .collect(Collectors.toMap(Function.identity(), id -> new HotSkuStock(id, stripes)));
+    }
+
+    @Override
+    public StockReservationResult reserve(String salesId, List<ProductQuantityDTO> products){
+        var requested = new TreeMap<Integer, Integer>();
+        products.forEach(product -> requested.merge(product.getProductId(), product.getQuantity(), Integer::sum));
+        var taken = new LinkedHashMap<HotSkuStock, Integer>();
+        var rejects = new ArrayList<StockReservationReject>();
+        var others = new ArrayList<ProductQuantityDTO>();
+        var locked = lockedInTransaction();
+        requested.forEach((productId, quantity) -> {
+            var stock = stocks.get(productId);
+            if(stock == null || !stock.isOwned() || locked.contains(productId)){
+                others.add(new ProductQuantityDTO(productId, quantity));
+            } else if(take(stock, quantity)){
+                taken.put(stock, quantity);
+            } else {
+                rejects.add(new StockReservationReject(productId, quantity, stock.total(), OUT_OF_STOCK));
+            }
+        });
+        if(!rejects.isEmpty()){
+            giveBack(taken);
+            return StockReservationResult.rejected(rejects);
+        }
+        if(!others.isEmpty()){
+            others.forEach(product -> locked.add(product.getProductId()));
+            var result = delegate.reserve(salesId, others);
+            if(!result.isApproved()){
+                giveBack(taken);
+                return result;
+            }
+        }
+        giveBackOnRollback(taken);
+        return StockReservationResult.approved();
+    }
+
+    // Escrow held by another instance is counted as of that instance's last flush.
+    @Override
+    public Map<Integer, Integer> findAvailable(Collection<Integer> productIds){
+        var available = new HashMap<>(delegate.findAvailable(productIds));
+        var hotIds = available
+                .keySet()
+                .stream()
+                .filter(stocks::containsKey)
+                .collect(Collectors.toList());
+        if(hotIds.isEmpty()){
+            return available;
+        }
+        var now = LocalDateTime.now();
+        var escrowedElsewhere = iHotSkuLeaseRepository
+                .findAllById(hotIds)
+                .stream()
+                .filter(lease -> lease.isHeldByOther(owner, now))
+                .collect(Collectors.toMap(HotSkuLease::getProductId, HotSkuLease::getEscrowed));
+        hotIds.forEach(productId -> available.merge(productId,
+                stocks.get(productId).total() + escrowedElsewhere.getOrDefault(productId, 0), Integer::sum));
+        return available;
+    }
+
+    // A manual stock change replaces whatever was escrowed, so the escrow is dropped rather than returned.
+    // The drop is undone if the change does not commit.
+    @Override
+    public void resetStock(Integer productId, Integer quantityAvailable){
+        lockedInTransaction().add(productId);
+        delegate.resetStock(productId, quantityAvailable);
+        var stock = stocks.get(productId);
+        if(stock == null){
+            return;
+        }
+        int dropped;
+        synchronized(stock){
+            dropped = stock.drain();
+        }
+        if(dropped > 0){
+            log.info("Dropped {} escrowed units of hot product {} after a manual stock change.", dropped, productId);
+            giveBackOnRollback(Map.of(stock, dropped));
+        }
+    }
+
+    @Override
+    public void release(String reference, Integer productId, Integer quantity){
+        lockedInTransaction().add(productId);
+        delegate.release(reference, productId, quantity);
+    }
+
+    // Adjustments go to the stock itself; escrowed units are left as they are.
+    @Override
+    public StockReservationResult adjust(String reference, SortedMap<Integer, Integer> deltas){
+        lockedInTransaction().addAll(deltas.keySet());
+        return delegate.adjust(reference, deltas);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void acquireLeases(){
+        stocks.values().forEach(this::acquire);
+    }
+
+    // Write-behind: persists what is still escrowed and extends the lease, or hands the product back if it was lost.
+    @Scheduled(fixedDelayString = "${app-config.stock.hot-sku.flush-interval}")
+    public void flush(){
+        stocks.values().forEach(stock -> {
+            if(!stock.isOwned()){
+                if(stock.total() > 0){
+                    returnEscrow(stock, false);
+                }
+                acquire(stock);
+                return;
+            }
+            var expiresAt = System.currentTimeMillis() + leaseTtl;
+            Integer renewed = transactionTemplate.execute(status -> iHotSkuLeaseRepository
+                    .renew(stock.getProductId(), owner, stock.total(), toDateTime(expiresAt)));
+            if(renewed != null && renewed > 0){
+                stock.own(expiresAt);
+            } else {
+                log.warn("Lost the lease of hot product {}, returning its escrow.", stock.getProductId());
+                stock.disown();
+                returnEscrow(stock, false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void handOff(){
+        stocks.values().forEach(stock -> {
+            if(stock.isOwned()){
+                stock.disown();
+                returnEscrow(stock, true);
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry){
+        stocks.values().forEach(stock -> Gauge
+                .builder("product.stock.hot-sku.escrowed", stock, HotSkuStock::total)
+                .tag("product", String.valueOf(stock.getProductId()))
+                .register(registry));
+    }
+
+    private boolean take(HotSkuStock stock, Integer quantity){
+        if(stock.tryTake(quantity)){
+            return true;
+        }
+        synchronized(stock){
+            while(!stock.tryTake(quantity)){
+                if(!stock.isOwned() || refill(stock, quantity) == 0){
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Moves a chunk off the stock and records it on the lease in the same transaction.
+    private int refill(HotSkuStock stock, Integer quantity){
+        var productId = stock.getProductId();
+        var chunk = Math.max(escrowChunk, quantity - stock.total());
+        var available = delegate.findAvailable(List.of(productId)).getOrDefault(productId, 0);
+        var amount = Math.min(chunk, available);
+        if(amount <= 0){
+            return 0;
+        }
+        Integer escrowed = transactionTemplate.execute(status -> {
+            var result = delegate.reserve(ESCROW_REFERENCE + owner, List.of(new ProductQuantityDTO(productId, amount)));
+            if(!result.isApproved()){
+                return 0;
+            }
+            if(iHotSkuLeaseRepository.addEscrow(productId, owner, amount) == 0){
+                status.setRollbackOnly();
+                stock.disown();
+                return 0;
+            }
+            productResponseCache.evictProducts(List.of(productId));
+            return amount;
+        });
+        if(escrowed == null || escrowed == 0){
+            return 0;
+        }
+        stock.add(escrowed);
+        return escrowed;
+    }
+
+    private void acquire(HotSkuStock stock){
+        var expiresAt = System.currentTimeMillis() + leaseTtl;
+        try {
+            Boolean acquired = transactionTemplate.execute(status -> {
+                var now = LocalDateTime.now();
+                var lease = iHotSkuLeaseRepository.findForUpdate(stock.getProductId());
+                if(lease.isEmpty()){
+                    iHotSkuLeaseRepository.saveAndFlush(HotSkuLease.of(stock.getProductId(), owner, toDateTime(expiresAt)));
+                    return true;
+                }
+                var current = lease.get();
+                if(current.isHeldByOther(owner, now)){
+                    return false;
+                }
+                // Units a crashed owner still held may already be sold, so returning them could oversell.
+                if(!owner.equals(current.getOwner()) && current.getEscrowed() > 0){
+                    log.warn("Writing off up to {} units of hot product {} escrowed by expired owner {}.",
+                            current.getEscrowed(), current.getProductId(), current.getOwner());
+                }
+                current.takeOver(owner, toDateTime(expiresAt));
+                return true;
+            });
+            if(Boolean.TRUE.equals(acquired)){
+                stock.own(expiresAt);
+                log.info("Acquired the lease of hot product {}.", stock.getProductId());
+            }
+        } catch (DataIntegrityViolationException ex){
+            log.debug("Another instance acquired the lease of hot product {}.", stock.getProductId());
+        }
+    }
+
+    private void returnEscrow(HotSkuStock stock, boolean releaseLease){
+        synchronized(stock){
+            var remaining = stock.drain();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if(remaining > 0){
+                        delegate.release(ESCROW_REFERENCE + owner, stock.getProductId(), remaining);
+                        productResponseCache.evictProducts(List.of(stock.getProductId()));
+                    }
+                    if(releaseLease){
+                        iHotSkuLeaseRepository.release(stock.getProductId(), owner);
+                    }
+                });
+            } catch (Exception ex){
+                log.error("Could not return {} escrowed units of hot product {}.", remaining, stock.getProductId(), ex);
+            }
+        }
+    }
+
+    // Products whose row the caller's transaction may already hold locked. A refill runs in its own transaction and would
+    // wait on that lock for as long as the caller waits on the refill, so these are sold from the row instead.
+    @SuppressWarnings("unchecked")
+    private Set<Integer> lockedInTransaction(){
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            return new HashSet<>();
+        }
+        var bound = (Set<Integer>) TransactionSynchronizationManager.getResource(LOCKED_PRODUCTS);
+        if(bound != null){
+            return bound;
+        }
+        var locked = new HashSet<Integer>();
+        TransactionSynchronizationManager.bindResource(LOCKED_PRODUCTS, locked);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend(){
+                TransactionSynchronizationManager.unbindResource(LOCKED_PRODUCTS);
+            }
+
+            @Override
+            public void resume(){
+                TransactionSynchronizationManager.bindResource(LOCKED_PRODUCTS, locked);
+            }
+
+            @Override
+            public void afterCompletion(int status){
+                TransactionSynchronizationManager.unbindResourceIfPossible(LOCKED_PRODUCTS);
+            }
+        });
+        return locked;
+    }
+
+    private void giveBack(Map<HotSkuStock, Integer> taken){
+        taken.forEach(HotSkuStock::add);
+    }
+
+    // The units go back to memory only if the surrounding reservation does not commit.
+    private void giveBackOnRollback(Map<HotSkuStock, Integer> taken){
+        if(taken.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()){
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status){
+                if(status != STATUS_COMMITTED){
+                    giveBack(taken);
+                }
+            }
+        });
+    }
+
+    private LocalDateTime toDateTime(long epochMillis){
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,142 @@
+package br.com.cursoudemy.productapi.modules.produto.service;
+
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductQuantityDTO;
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.StockReservationReject;
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.StockReservationResult;
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.StockTail;
+import br.com.cursoudemy.productapi.modules.produto.model.StockMovement;
+import br.com.cursoudemy.productapi.modules.produto.model.StockSnapshot;
+import br.com.cursoudemy.productapi.modules.produto.repository.IStockMovementRepository;
+import br.com.cursoudemy.productapi.modules.produto.repository.IStockSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static br.com.cursoudemy.productapi.modules.produto.enums.StockRejectReason.OUT_OF_STOCK;
+import static br.com.cursoudemy.productapi.modules.produto.enums.StockRejectReason.PRODUCT_NOT_FOUND;
+
+// Reserves by appending movements; availability is the product's snapshot plus the movements after it.
+@Component(StockReservationEngine.BASE)
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app-config.stock.mode", havingValue = "ledger")
+public class LedgerStockReservationEngine implements StockReservationEngine {
+
+    private static final Integer ZERO = 0;
+
+    private final IStockSnapshotRepository iStockSnapshotRepository;
+
+    private final IStockMovementRepository iStockMovementRepository;
+
+    @Override
+    @Transactional
+    public StockReservationResult reserve(String salesId, List<ProductQuantityDTO> products){
+        var requested = new TreeMap<Integer, Integer>();
+        products.forEach(product -> requested.merge(product.getProductId(), product.getQuantity(), Integer::sum));
+        var available = findAvailableForUpdate(requested.keySet());
+        var rejects = new ArrayList<StockReservationReject>();
+        requested.forEach((productId, quantity) -> {
+            var quantityAvailable = available.get(productId);
+            if(quantityAvailable == null){
+                rejects.add(new StockReservationReject(productId, quantity, ZERO, PRODUCT_NOT_FOUND));
+            } else if(quantity > quantityAvailable){
+                rejects.add(new StockReservationReject(productId, quantity, quantityAvailable, OUT_OF_STOCK));
+            }
+        });
+        if(!rejects.isEmpty()){
+            return StockReservationResult.rejected(rejects);
+        }
+        iStockMovementRepository.saveAll(requested
+                .entrySet()
+                .stream()
+                .map(entry -> StockMovement.of(entry.getKey(), -entry.getValue(), salesId))
+                .collect(Collectors.toList()));
+        return StockReservationResult.approved();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Integer, Integer> findAvailable(Collection<Integer> productIds){
+        var available = new HashMap<Integer, Integer>();
+        iStockSnapshotRepository
+                .findAvailable(productIds)
+                .forEach(row -> available.put(((Number) row[0]).intValue(), ((Number) row[1]).intValue()));
+        return available;
+    }
+
+    // A manual stock change folds the current tail into a fresh snapshot with the new quantity.
+    @Override
+    @Transactional
+    public void resetStock(Integer productId, Integer quantityAvailable){
+        lockSnapshots(List.of(productId));
+        var lastMovementId = iStockMovementRepository.findLastMovementId(productId);
+        iStockSnapshotRepository.save(new StockSnapshot(productId, quantityAvailable, lastMovementId, LocalDateTime.now()));
+    }
+
+    @Override
+    @Transactional
+    public StockReservationResult adjust(String reference, SortedMap<Integer, Integer> deltas){
+        var available = findAvailableForUpdate(deltas.keySet());
+        var rejects = new ArrayList<StockReservationReject>();
+        deltas.forEach((productId, delta) -> {
+            var quantityAvailable = available.get(productId);
+            if(quantityAvailable == null){
+                rejects.add(new StockReservationReject(productId, -delta, ZERO, PRODUCT_NOT_FOUND));
+            } else if(quantityAvailable + delta < ZERO){
+                rejects.add(new StockReservationReject(productId, -delta, quantityAvailable, OUT_OF_STOCK));
+            }
+        });
+        if(!rejects.isEmpty()){
+            return StockReservationResult.rejected(rejects);
+        }
+        iStockMovementRepository.saveAll(deltas
+                .entrySet()
+                .stream()
+                .map(entry -> StockMovement.of(entry.getKey(), entry.getValue(), reference))
+                .collect(Collectors.toList()));
+        return StockReservationResult.approved();
+    }
+
+    @Override
+    @Transactional
+    public void release(String reference, Integer productId, Integer quantity){
+        lockSnapshots(List.of(productId));
+        iStockMovementRepository.save(StockMovement.of(productId, quantity, reference));
+    }
+
+    // The snapshot row lock is what keeps two reservations from selling the same unit.
+    private Map<Integer, Integer> findAvailableForUpdate(Collection<Integer> productIds){
+        var snapshots = lockSnapshots(productIds);
+        var tails = iStockMovementRepository
+                .findTails(productIds)
+                .stream()
+                .collect(Collectors.toMap(StockTail::getProductId, Function.identity()));
+        var available = new HashMap<Integer, Integer>();
+        snapshots.forEach(snapshot -> {
+            var tail = tails.get(snapshot.getProductId());
+            var delta = tail == null ? 0 : tail.getDelta();
+            available.put(snapshot.getProductId(), Math.toIntExact(snapshot.getQuantity() + delta));
+        });
+        return available;
+    }
+
+    private List<StockSnapshot> lockSnapshots(Collection<Integer> productIds){
+        var snapshots = iStockSnapshotRepository.findAllForUpdate(productIds);
+        if(snapshots.size() == productIds.size()){
+            return snapshots;
+        }
+        iStockSnapshotRepository.insertFromProducts(productIds);
+        return iStockSnapshotRepository.findAllForUpdate(productIds);
+    }
+}
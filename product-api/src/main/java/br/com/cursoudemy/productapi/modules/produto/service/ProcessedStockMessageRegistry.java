@@ -0,0 +1,119 @@
+package br.com.cursoudemy.productapi.modules.produto.service;
+
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductStockDTO;
+import br.com.cursoudemy.productapi.modules.produto.model.ProcessedStockMessage;
+import br.com.cursoudemy.productapi.modules.produto.repository.IProcessedStockMessageRepository;
+import br.com.cursoudemy.productapi.modules.sales.dto.SalesConfirmationDTO;
+import br.com.cursoudemy.productapi.modules.sales.enums.SalesStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.springframework.util.ObjectUtils.isEmpty;
+
+@Slf4j
+@Component
+public class ProcessedStockMessageRegistry {
+
+    private static final Integer INSERTED = 1;
+
+    private final IProcessedStockMessageRepository iProcessedStockMessageRepository;
+
+    private final Cache<String, SalesConfirmationDTO> processedMessages;
+
+    private final Long retentionHours;
+
+    public ProcessedStockMessageRegistry(IProcessedStockMessageRepository iProcessedStockMessageRepository,
+                                         @Value("${app-config.idempotency.product-stock.cache-size}") Long cacheSize,
+                                         @Value("${app-config.idempotency.product-stock.retention-hours}") Long retentionHours){
+        this.iProcessedStockMessageRepository = iProcessedStockMessageRepository;
+        this.retentionHours = retentionHours;
+        this.processedMessages = Caffeine
+                .newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    // Claims the salesId as APPROVED; an existing row means the message was already applied.
+    // A rejection later in the same transaction flips the claim through processed().
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<SalesConfirmationDTO> claim(ProductStockDTO productStockDTO){
+        var cached = processedMessages.getIfPresent(productStockDTO.getSalesId());
+        if(cached != null){
+            return Optional.of(cached);
+        }
+        var inserted = iProcessedStockMessageRepository.insertIfAbsent(productStockDTO.getSalesId(),
+                productStockDTO.getTransactionid(), SalesStatus.APPROVED.name());
+        if(INSERTED.equals(inserted)){
+            return Optional.empty();
+        }
+        return iProcessedStockMessageRepository
+                .findById(productStockDTO.getSalesId())
+                .map(ProcessedStockMessage::toConfirmation);
+    }
+
+    // Claims the salesId as REJECTED for a message that failed outside of its own claim, e.g. after a redelivery.
+    // A stored outcome wins: an APPROVED row means the stock was already taken and must not be rejected.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<SalesConfirmationDTO> claimRejection(ProductStockDTO productStockDTO){
+        if(isEmpty(productStockDTO.getSalesId())){
+            return Optional.empty();
+        }
+        var cached = processedMessages.getIfPresent(productStockDTO.getSalesId());
+        if(cached != null){
+            return Optional.of(cached);
+        }
+        var rejection = new SalesConfirmationDTO(productStockDTO.getSalesId(), SalesStatus.REJECTED,
+                productStockDTO.getTransactionid());
+        var inserted = iProcessedStockMessageRepository.insertIfAbsent(rejection.getSalesId(),
+                rejection.getTransactionid(), rejection.getStatus().name());
+        if(INSERTED.equals(inserted)){
+            cacheAfterCommit(rejection);
+            return Optional.empty();
+        }
+        return iProcessedStockMessageRepository
+                .findById(productStockDTO.getSalesId())
+                .map(ProcessedStockMessage::toConfirmation);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void processed(SalesConfirmationDTO confirmation){
+        if(isEmpty(confirmation.getSalesId())){
+            return;
+        }
+        if(SalesStatus.REJECTED.equals(confirmation.getStatus())
+            && !INSERTED.equals(iProcessedStockMessageRepository.insertIfAbsent(confirmation.getSalesId(),
+                confirmation.getTransactionid(), confirmation.getStatus().name()))){
+            iProcessedStockMessageRepository.updateStatus(confirmation.getSalesId(), confirmation.getStatus());
+        }
+        cacheAfterCommit(confirmation);
+    }
+
+    // A redelivery older than the retention would be applied again, so it has to outlive the broker's redelivery window.
+    @Transactional
+    @Scheduled(fixedDelayString = "${app-config.idempotency.product-stock.purge-interval}")
+    public void purgeProcessed(){
+        var purged = iProcessedStockMessageRepository
+                .deleteProcessedBefore(LocalDateTime.now().minusHours(retentionHours));
+        log.info("{} processed stock messages were purged.", purged);
+    }
+
+    private void cacheAfterCommit(SalesConfirmationDTO confirmation){
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit(){
+                processedMessages.put(confirmation.getSalesId(), confirmation);
+            }
+        });
+    }
+}
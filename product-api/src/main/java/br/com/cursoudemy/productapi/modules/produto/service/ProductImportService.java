@@ -0,0 +1,317 @@
+package br.com.cursoudemy.productapi.modules.produto.service;
+
+import br.com.cursoudemy.productapi.config.exception.ValidationException;
+import br.com.cursoudemy.productapi.modules.category.model.Category;
+import br.com.cursoudemy.productapi.modules.category.repository.ICategoryRepository;
+import br.com.cursoudemy.productapi.modules.produto.dto.request.ProductRequest;
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductImportError;
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductImportResponse;
+import br.com.cursoudemy.productapi.modules.produto.enums.ProductImportFormat;
+import br.com.cursoudemy.productapi.modules.produto.model.Product;
+import br.com.cursoudemy.productapi.modules.search.enums.SearchDomain;
+import br.com.cursoudemy.productapi.modules.search.service.SearchService;
+import br.com.cursoudemy.productapi.modules.supplier.model.Supplier;
+import br.com.cursoudemy.productapi.modules.supplier.repository.ISupplierRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static io.micrometer.common.util.StringUtils.isBlank;
+
+// Streams the body, validating and inserting it chunk by chunk, so one bad row never costs the rest of the load.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    private static final String NAME = "name";
+    private static final String QUANTITY_AVAILABLE = "quantity_available";
+    private static final String SUPPLIER_ID = "supplier_id";
+    private static final String CATEGORY_ID = "category_id";
+    private static final List<String> CSV_COLUMNS = List.of(NAME, QUANTITY_AVAILABLE, SUPPLIER_ID, CATEGORY_ID);
+
+    private final ProductService productService;
+
+    private final ICategoryRepository iCategoryRepository;
+
+    private final ISupplierRepository iSupplierRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final SearchService searchService;
+
+    private final ProductResponseCache productResponseCache;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${app-config.product-import.chunk-size}")
+    private Integer chunkSize;
+
+    @Value("${app-config.product-import.max-reported-errors}")
+    private Integer maxReportedErrors;
+
+    public ProductImportResponse importProducts(InputStream body, ProductImportFormat format) throws IOException {
+        var result = new ImportResult(maxReportedErrors);
+        var categories = new HashMap<Integer, Category>();
+        var suppliers = new HashMap<Integer, Supplier>();
+        try(var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))){
+            var lineNumber = 0L;
+            Map<String, Integer> columns = null;
+            if(ProductImportFormat.CSV.equals(format)){
+                columns = readCsvHeader(reader.readLine());
+                lineNumber++;
+            }
+            var chunk = new ArrayList<ImportRow>(chunkSize);
+            String line;
+            while((line = reader.readLine()) != null){
+                lineNumber++;
+                if(isBlank(line)){
+                    continue;
+                }
+                try{
+                    chunk.add(new ImportRow(lineNumber, parse(line, format, columns)));
+                } catch (Exception ex){
+                    result.fail(lineNumber, "The row could not be read: " + ex.getMessage());
+                }
+                if(chunk.size() == chunkSize){
+                    importChunk(chunk, categories, suppliers, result);
+                    chunk.clear();
+                }
+            }
+            if(!chunk.isEmpty()){
+                importChunk(chunk, categories, suppliers, result);
+            }
+        }
+        log.info("Product import finished: {} imported, {} failed.", result.imported, result.failed);
+        return result.toResponse();
+    }
+
+    private void importChunk(List<ImportRow> chunk,
+                             Map<Integer, Category> categories,
+                             Map<Integer, Supplier> suppliers,
+                             ImportResult result){
+        resolve(chunk, ImportRow::getCategoryId, categories, iCategoryRepository::findAllById, Category::getId);
+        resolve(chunk, ImportRow::getSupplierId, suppliers, iSupplierRepository::findAllById, Supplier::getId);
+        var valid = new ArrayList<ImportRow>(chunk.size());
+        chunk.forEach(row -> {
+            try{
+                productService.validateProductDataInformed(row.getRequest());
+                var category = categories.get(row.getCategoryId());
+                if(category == null){
+                    throw new ValidationException("The category was not found.");
+                }
+                var supplier = suppliers.get(row.getSupplierId());
+                if(supplier == null){
+                    throw new ValidationException("The supplier was not found.");
+                }
+                row.setProduct(Product.of(row.getRequest(), supplier, category));
+                valid.add(row);
+            } catch (ValidationException ex){
+                result.fail(row.getLine(), ex.getMessage());
+            }
+        });
+        if(valid.isEmpty()){
+            return;
+        }
+        try{
+            transactionTemplate.executeWithoutResult(status -> persist(valid));
+            valid.forEach(row -> imported(row, result));
+            evictLists(valid);
+        } catch (Exception ex){
+            log.warn("Error while trying to import a chunk of {} products, retrying one by one: {}", valid.size(), ex.getMessage());
+            valid.forEach(row -> {
+                row.getProduct().setId(null);
+                try{
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(row)));
+                    imported(row, result);
+                    evictLists(List.of(row));
+                } catch (Exception rowEx){
+                    result.fail(row.getLine(), "The product could not be saved: " + rootMessage(rowEx));
+                }
+            });
+        }
+    }
+
+    // Categories and suppliers are looked up once per chunk and remembered for the rest of the import.
+    private <T> void resolve(List<ImportRow> chunk,
+                             Function<ImportRow, Integer> idOf,
+                             Map<Integer, T> resolved,
+                             Function<List<Integer>, List<T>> finder,
+                             Function<T, Integer> entityId){
+        var missing = chunk
+                .stream()
+                .map(idOf)
+                .filter(Objects::nonNull)
+                .filter(id -> !resolved.containsKey(id))
+                .distinct()
+                .toList();
+        if(!missing.isEmpty()){
+            finder.apply(missing).forEach(entity -> resolved.put(entityId.apply(entity), entity));
+        }
+    }
+
+    // Flushing per chunk lets Hibernate send the inserts as JDBC batches; clearing keeps the context small.
+    private void persist(List<ImportRow> rows){
+        rows.forEach(row -> entityManager.persist(row.getProduct()));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void imported(ImportRow row, ImportResult result){
+        result.imported++;
+        searchService.index(SearchDomain.PRODUCT, row.getProduct().getId(), row.getProduct().getName());
+    }
+
+    // The new products join cached category, supplier and page lists, which are dropped once per list per chunk.
+    private void evictLists(List<ImportRow> rows){
+        rows
+                .stream()
+                .map(ImportRow::getProduct)
+                .map(product -> Map.entry(product.getCategory().getId(), product.getSupplier().getId()))
+                .distinct()
+                .forEach(lists -> productResponseCache.evictListsOf(lists.getKey(), lists.getValue()));
+    }
+
+    private ProductRequest parse(String line, ProductImportFormat format, Map<String, Integer> columns) throws IOException {
+        if(ProductImportFormat.NDJSON.equals(format)){
+            return objectMapper.readValue(line, ProductRequest.class);
+        }
+        var values = splitCsv(line);
+        var request = new ProductRequest();
+        request.setName(csvValue(values, columns, NAME));
+        request.setQuantityAvailable(csvInteger(values, columns, QUANTITY_AVAILABLE));
+        request.setSupplierId(csvInteger(values, columns, SUPPLIER_ID));
+        request.setCategoryId(csvInteger(values, columns, CATEGORY_ID));
+        return request;
+    }
+
+    private Map<String, Integer> readCsvHeader(String header){
+        if(isBlank(header)){
+            throw new ValidationException("The CSV header must be informed.");
+        }
+        var columns = new HashMap<String, Integer>();
+        var names = splitCsv(header);
+        for(var i = 0; i < names.size(); i++){
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        CSV_COLUMNS.forEach(column -> {
+            if(!columns.containsKey(column)){
+                throw new ValidationException(String.format("The CSV header must contain the %s column.", column));
+            }
+        });
+        return columns;
+    }
+
+    private String csvValue(List<String> values, Map<String, Integer> columns, String column){
+        var index = columns.get(column);
+        return index < values.size() ? values.get(index) : null;
+    }
+
+    private Integer csvInteger(List<String> values, Map<String, Integer> columns, String column){
+        var value = csvValue(values, columns, column);
+        return isBlank(value) ? null : Integer.valueOf(value.trim());
+    }
+
+    // RFC 4180 fields: separated by commas, optionally quoted, with "" as an escaped quote.
+    private List<String> splitCsv(String line){
+        var values = new ArrayList<String>();
+        var current = new StringBuilder();
+        var quoted = false;
+        for(var i = 0; i < line.length(); i++){
+            var character = line.charAt(i);
+            if(quoted){
+                if(character == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"'){
+                    current.append('"');
+                    i++;
+                } else if(character == '"'){
+                    quoted = false;
+                } else {
+                    current.append(character);
+                }
+            } else if(character == '"'){
+                quoted = true;
+            } else if(character == ','){
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(character);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private String rootMessage(Throwable ex){
+        var cause = ex;
+        while(cause.getCause() != null){
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    @Getter
+    private static class ImportRow {
+
+        private final Long line;
+        private final ProductRequest request;
+        @Setter
+        private Product product;
+
+        private ImportRow(Long line, ProductRequest request){
+            this.line = line;
+            this.request = request;
+        }
+
+        private Integer getCategoryId(){
+            return request.getCategoryId();
+        }
+
+        private Integer getSupplierId(){
+            return request.getSupplierId();
+        }
+    }
+
+    private static class ImportResult {
+
+        private final Integer maxReportedErrors;
+        private final List<ProductImportError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        private ImportResult(Integer maxReportedErrors){
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void fail(Long line, String message){
+            failed++;
+            if(errors.size() < maxReportedErrors){
+                errors.add(new ProductImportError(line, message));
+            }
+        }
+
+        private ProductImportResponse toResponse(){
+            return new ProductImportResponse(imported, failed, errors, failed > errors.size());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.cursoudemy.productapi.modules.produto.service;
+
+import br.com.cursoudemy.productapi.config.exception.ValidationException;
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductResponse;
+import br.com.cursoudemy.productapi.modules.produto.service.ProductResponseCache.CachedJson;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.util.List;
+
+// Product reads served as UTF-8 JSON bytes, straight from ProductResponseCache when they are there.
+@Service
+@RequiredArgsConstructor
+public class ProductJsonService {
+
+    public static final String ETAG_SEPARATOR = "-";
+
+    private final ProductService productService;
+
+    private final ProductResponseCache productResponseCache;
+
+    private final ObjectMapper objectMapper;
+
+    // The ETag is the product version followed by a digest of the body: renaming its category or supplier does not bump
+    // the version but changes the digest, and If-Match only needs the version part.
+    public CachedJson findById(Integer id){
+        return productResponseCache.get(ProductResponseCache.productKey(id), () -> {
+            var product = productService.findByIdResponse(id);
+            var json = serialize(product);
+            return new CachedJson(json, ProductResponseCache.tagsOf(List.of(product)),
+                    product.getVersion() + ETAG_SEPARATOR + DigestUtils.md5DigestAsHex(json));
+        });
+    }
+
+    public byte[] findByCategoryId(Integer categoryId){
+        var key = ProductResponseCache.categoryListKey(categoryId);
+        return productResponseCache.get(key, () -> {
+            var products = productService.findByCategoryId(categoryId);
+            return new CachedJson(serialize(products), ProductResponseCache.tagsOf(products, key));
+        }).getJson();
+    }
+
+    public byte[] findBySupplierId(Integer supplierId){
+        var key = ProductResponseCache.supplierListKey(supplierId);
+        return productResponseCache.get(key, () -> {
+            var products = productService.findBySupplierId(supplierId);
+            return new CachedJson(serialize(products), ProductResponseCache.tagsOf(products, key));
+        }).getJson();
+    }
+
+    public byte[] findPage(Integer after, Integer size){
+        return productResponseCache.get(ProductResponseCache.pageKey(after, size), () -> {
+            var page = productService.findPage(after, size);
+            return new CachedJson(serialize(page), ProductResponseCache.tagsOf(page.getContent(), ProductResponseCache.pagesTag()));
+        }).getJson();
+    }
+
+    private byte[] serialize(Object response){
+        try{
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException ex){
+            throw new ValidationException("The product response could not be serialized.");
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package br.com.cursoudemy.productapi.modules.produto.service;
+
+import br.com.cursoudemy.productapi.config.datasource.PrimaryReads;
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductResponse;
+import br.com.cursoudemy.productapi.modules.produto.rabbitmq.ProductResponseInvalidationSender;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Serialized product responses, bounded by their total size in bytes. Each entry is tagged with the products,
+// categories and suppliers it renders, and writes invalidate by tag once they commit, here and, through the fanout,
+// on every other instance. Expiry bounds how long a lost broadcast leaves an entry stale.
+@Component
+public class ProductResponseCache implements MeterBinder {
+
+    private static final String PRODUCT = "product:";
+    private static final String CATEGORY = "category:";
+    private static final String SUPPLIER = "supplier:";
+    private static final String CATEGORY_LIST = "category-products:";
+    private static final String SUPPLIER_LIST = "supplier-products:";
+    private static final String PAGE = "page:";
+    private static final String PAGES = "pages";
+
+    private final boolean enabled;
+
+    private final Cache<String, CachedJson> cache;
+
+    private final ProductResponseInvalidationSender productResponseInvalidationSender;
+
+    private final boolean replicaEnabled;
+
+    private final Long replicaMaxLag;
+
+    private final Map<String, Set<String>> keysByTag = new ConcurrentHashMap<>();
+
+    // Bumped by every invalidation, and recorded against each tag it touched. A load is only dropped when one of its
+    // own tags was invalidated while it ran, since only then may it have read the old rows.
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Map<String, TagInvalidation> invalidatedTags = new ConcurrentHashMap<>();
+
+    private long prunedThrough;
+
+    public ProductResponseCache(@Value("${app-config.product-response-cache.enabled}") boolean enabled,
+                                @Value("${app-config.product-response-cache.max-bytes}") Long maxBytes,
+                                @Value("${app-config.product-response-cache.expire-after-write}") Long expireAfterWrite,
+                                @Value("${app-config.datasource.replica.enabled}") boolean replicaEnabled,
+                                @Value("${app-config.datasource.replica.max-lag}") Long replicaMaxLag,
+                                ProductResponseInvalidationSender productResponseInvalidationSender){
+        this.enabled = enabled;
+        this.replicaEnabled = replicaEnabled;
+        this.replicaMaxLag = replicaMaxLag;
+        this.productResponseInvalidationSender = productResponseInvalidationSender;
+        cache = Caffeine
+                .newBuilder()
+                .maximumWeight(maxBytes)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWrite))
+                .weigher((String key, CachedJson value) -> key.length() + value.getJson().length)
+                .recordStats()
+                .build();
+    }
+
+    public static String productKey(Integer id){
+        return PRODUCT + id;
+    }
+
+    public static String categoryListKey(Integer categoryId){
+        return CATEGORY_LIST + categoryId;
+    }
+
+    public static String supplierListKey(Integer supplierId){
+        return SUPPLIER_LIST + supplierId;
+    }
+
+    public static String pageKey(Integer after, Integer size){
+        return PAGE + after + ':' + size;
+    }
+
+    public static Set<String> tagsOf(Collection<ProductResponse> products, String... extraTags){
+        var tags = new HashSet<>(List.of(extraTags));
+        products.forEach(product -> {
+            tags.add(PRODUCT + product.getId());
+            if(product.getCategory() != null){
+                tags.add(CATEGORY + product.getCategory().getId());
+            }
+            if(product.getSupplier() != null){
+                tags.add(SUPPLIER + product.getSupplier().getId());
+            }
+        });
+        return tags;
+    }
+
+    public static String pagesTag(){
+        return PAGES;
+    }
+
+    public CachedJson get(String key, Supplier<CachedJson> loader){
+        if(!enabled){
+            return loader.get();
+        }
+        var cached = cache.getIfPresent(key);
+        if(cached != null){
+            return cached;
+        }
+        var stamp = invalidations.get();
+        // A fill for something invalidated within the replica's max lag is read from the primary, since the replica
+        // may not have the change yet. Only the loaded entry knows all its tags, so it is checked again after a
+        // replica read.
+        var primary = invalidatedRecently(key.startsWith(PAGE) ? Set.of(PAGES) : Set.of(key));
+        var loaded = primary ? PrimaryReads.call(loader) : loader.get();
+        if(!primary && invalidatedRecently(loaded.getTags())){
+            loaded = PrimaryReads.call(loader);
+        }
+        cache.put(key, loaded);
+        loaded.getTags().forEach(tag -> keysByTag.computeIfAbsent(tag, ignored -> ConcurrentHashMap.newKeySet()).add(key));
+        if(invalidatedSince(loaded.getTags(), stamp)){
+            cache.invalidate(key);
+        }
+        return loaded;
+    }
+
+    public void evictProducts(Collection<Integer> productIds){
+        invalidate(productIds.stream().map(id -> PRODUCT + id).toList());
+    }
+
+    // A new or moved product is not in any cached entry yet, so the lists it joins are dropped by their own tags.
+    public void evictListsOf(Integer categoryId, Integer supplierId){
+        invalidate(List.of(CATEGORY_LIST + categoryId, SUPPLIER_LIST + supplierId, PAGES));
+    }
+
+    public void evictCategory(Integer categoryId){
+        invalidate(List.of(CATEGORY + categoryId));
+    }
+
+    public void evictSupplier(Integer supplierId){
+        invalidate(List.of(SUPPLIER + supplierId));
+    }
+
+    // Keys evicted by size leave their tags behind; this drops the ones that no longer point at an entry.
+    @Scheduled(fixedDelayString = "${app-config.product-response-cache.prune-interval}")
+    // Tag invalidations older than the previous prune can no longer overlap a running load, so they are dropped too.
+    public void pruneTags(){
+        keysByTag.values().forEach(keys -> keys.removeIf(key -> cache.getIfPresent(key) == null));
+        keysByTag.values().removeIf(Set::isEmpty);
+        var current = invalidations.get();
+        invalidatedTags.values().removeIf(invalidation -> invalidation.getSequence() <= prunedThrough);
+        prunedThrough = current;
+    }
+
+    // Applies an invalidation broadcast by another instance, which already committed its write.
+    public void invalidateBroadcast(Collection<String> tags){
+        if(!enabled){
+            return;
+        }
+        invalidateNow(tags);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry){
+        CaffeineCacheMetrics.monitor(registry, cache, "product.responses");
+    }
+
+    private void invalidate(Collection<String> tags){
+        if(!enabled || tags.isEmpty()){
+            return;
+        }
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit(){
+                    invalidateEverywhere(tags);
+                }
+            });
+            return;
+        }
+        invalidateEverywhere(tags);
+    }
+
+    private void invalidateEverywhere(Collection<String> tags){
+        invalidateNow(tags);
+        productResponseInvalidationSender.send(tags);
+    }
+
+    private boolean invalidatedSince(Set<String> tags, long stamp){
+        return tags
+                .stream()
+                .map(invalidatedTags::get)
+                .anyMatch(invalidation -> invalidation != null && invalidation.getSequence() > stamp);
+    }
+
+    private boolean invalidatedRecently(Set<String> tags){
+        if(!replicaEnabled){
+            return false;
+        }
+        var since = System.currentTimeMillis() - replicaMaxLag;
+        return tags
+                .stream()
+                .map(invalidatedTags::get)
+                .anyMatch(invalidation -> invalidation != null && invalidation.getInvalidatedAt() >= since);
+    }
+
+    // The tag is stamped before its keys are dropped, so a load registering its keys concurrently either sees the
+    // stamp or has its keys dropped.
+    private void invalidateNow(Collection<String> tags){
+        var invalidation = new TagInvalidation(invalidations.incrementAndGet(), System.currentTimeMillis());
+        tags.forEach(tag -> {
+            invalidatedTags.put(tag, invalidation);
+            var keys = keysByTag.remove(tag);
+            if(keys != null){
+                cache.invalidateAll(keys);
+            }
+        });
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CachedJson {
+
+        private final byte[] json;
+        private final Set<String> tags;
+        private final String etag;
+
+        public CachedJson(byte[] json, Set<String> tags){
+            this(json, tags, null);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class TagInvalidation {
+
+        private final long sequence;
+        private final long invalidatedAt;
+    }
+}
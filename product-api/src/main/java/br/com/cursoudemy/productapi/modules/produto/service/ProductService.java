@@ -1,30 +1,52 @@
 package br.com.cursoudemy.productapi.modules.produto.service;
 
+import br.com.cursoudemy.productapi.config.exception.PreconditionFailedException;
 import br.com.cursoudemy.productapi.config.exception.SuccessResponse;
 import br.com.cursoudemy.productapi.config.exception.ValidationException;
+import br.com.cursoudemy.productapi.config.logging.LogSampler;
+import br.com.cursoudemy.productapi.config.pagination.CursorPageResponse;
+import br.com.cursoudemy.productapi.config.pagination.CursorPagination;
+import br.com.cursoudemy.productapi.config.pagination.JsonArrayStreamWriter;
+import br.com.cursoudemy.productapi.modules.category.model.Category;
 import br.com.cursoudemy.productapi.modules.category.service.CategoryService;
 import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductQuantityDTO;
 import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductStockDTO;
 import br.com.cursoudemy.productapi.modules.produto.dto.request.ProductCheckStock;
 import br.com.cursoudemy.productapi.modules.produto.dto.request.ProductRequest;
+import br.com.cursoudemy.productapi.modules.produto.dto.request.ProductStockAdjustmentRequest;
 import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductResponse;
 import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductSalesResponse;
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductStockAdjustmentResponse;
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductStockReport;
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.ProductStockLevel;
 import br.com.cursoudemy.productapi.modules.produto.model.Product;
 import br.com.cursoudemy.productapi.modules.produto.repository.IProductRepository;
-import br.com.cursoudemy.productapi.modules.sales.client.SalesClient;
+import br.com.cursoudemy.productapi.modules.sales.client.ResilientSalesClient;
 import br.com.cursoudemy.productapi.modules.sales.dto.SalesConfirmationDTO;
 import br.com.cursoudemy.productapi.modules.sales.enums.SalesStatus;
-import br.com.cursoudemy.productapi.modules.sales.rabbitmq.SalesConfirmationSender;
+import br.com.cursoudemy.productapi.modules.sales.service.ProductSalesProjectionService;
+import br.com.cursoudemy.productapi.modules.sales.service.SalesConfirmationOutboxService;
+import br.com.cursoudemy.productapi.modules.search.enums.SearchDomain;
+import br.com.cursoudemy.productapi.modules.search.service.SearchService;
+import br.com.cursoudemy.productapi.modules.supplier.model.Supplier;
 import br.com.cursoudemy.productapi.modules.supplier.service.SupplierService;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-
-import java.util.ArrayList;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static br.com.cursoudemy.productapi.config.RequestUtil.getCurrentRequest;
@@ -40,17 +62,41 @@ public class ProductService {
     private static final String TRANSACTION_ID = "transactionid";
     private static final String SERVICE_ID = "serviceid";
     private static final String AUTHORIZATION = "Authorization";
+    private static final String CHECK_STOCK_LOG_ROUTE = "product.check-stock";
+    private static final String SALES_LOG_ROUTE = "product.sales";
 
 
     private final IProductRepository iProductRepository;
 
+    private final CursorPagination cursorPagination;
+
+    private final JsonArrayStreamWriter jsonArrayStreamWriter;
+
     private final SupplierService supplierService;
 
     private final CategoryService categoryService;
 
-    private final SalesConfirmationSender salesConfirmationSender;
+    private final ResilientSalesClient resilientSalesClient;
+
+    private final ProductSalesProjectionService productSalesProjectionService;
+
+    private final SalesConfirmationOutboxService salesConfirmationOutboxService;
+
+    private final ProcessedStockMessageRegistry processedStockMessageRegistry;
+
+    private final SearchService searchService;
+
+    private final ProductStockAvailabilityService productStockAvailabilityService;
+
+    private final StockReservationEngine stockReservationEngine;
+
+    private final LogSampler logSampler;
+
+    private final StockAdjustmentBatchRegistry stockAdjustmentBatchRegistry;
 
-    private final SalesClient salesClient;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ProductResponseCache productResponseCache;
 
     public Product findById(Integer id){
         validateInformedId(id);
@@ -59,45 +105,63 @@ public class ProductService {
                 .orElseThrow(() -> new ValidationException("There's no product for the given ID."));
     }
 
+    @Transactional(readOnly = true)
     public ProductResponse findByIdResponse(Integer id){
-        return ProductResponse.of(findById(id));
+        validateInformedId(id);
+        return iProductRepository
+                .findResponseById(id)
+                .orElseThrow(() -> new ValidationException("There's no product for the given ID."));
+    }
+
+    private Product findWithCategoryAndSupplier(Integer id){
+        validateInformedId(id);
+        return iProductRepository
+                .findWithCategoryAndSupplierById(id)
+                .orElseThrow(() -> new ValidationException("There's no product for the given ID."));
     }
 
-    public List<ProductResponse> findByName(String name){
+    @Transactional(readOnly = true)
+    public List<ProductResponse> findByName(String name, Integer page, Integer size){
         if (isBlank(name)){
             throw new ValidationException("The product name should be informed.");
         }
-        return iProductRepository
-                .findByNameIgnoreCaseContaining(name)
+        var ids = searchService.search(SearchDomain.PRODUCT, name, page, size);
+        var products = iProductRepository
+                .findResponsesByIdIn(ids)
                 .stream()
-                .map(ProductResponse::of)
+                .collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
+        return ids
+                .stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ProductResponse> findBySupplierId(Integer supplierId){
         validateInformedId(supplierId);
-        return iProductRepository
-                .findBySupplierId(supplierId)
-                .stream()
-                .map(ProductResponse::of)
-                .collect(Collectors.toList());
+        return iProductRepository.findResponsesBySupplierId(supplierId);
     }
 
+    @Transactional(readOnly = true)
     public List<ProductResponse> findByCategoryId(Integer categoryId){
         validateInformedId(categoryId);
-        return iProductRepository
-                .findBySupplierId(categoryId)
-                .stream()
-                .map(ProductResponse::of)
-                .collect(Collectors.toList());
+        return iProductRepository.findResponsesByCategoryId(categoryId);
     }
 
-    public List<ProductResponse> findAll(){
-        return iProductRepository
-                .findAll()
-                .stream()
-                .map(ProductResponse::of)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public void writeAll(OutputStream outputStream) throws IOException {
+        try(var products = iProductRepository.streamAllResponses()){
+            jsonArrayStreamWriter.write(outputStream, products);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ProductResponse> findPage(Integer after, Integer size){
+        var pageSize = cursorPagination.resolveSize(size);
+        var products = iProductRepository
+                .findResponsePageAfter(cursorPagination.resolveCursor(after), cursorPagination.limit(pageSize));
+        return CursorPageResponse.of(products, pageSize, ProductResponse::getId);
     }
 
     public ProductResponse save(ProductRequest request){
@@ -106,21 +170,80 @@ public class ProductService {
         var category = categoryService.findById(request.getCategoryId());
         var supplier = supplierService.findById(request.getSupplierId());
         var product = iProductRepository.save(Product.of(request, supplier, category));
+        searchService.index(SearchDomain.PRODUCT, product.getId(), product.getName());
+        productResponseCache.evictListsOf(category.getId(), supplier.getId());
         return ProductResponse.of(product);
     }
 
-    public ProductResponse update(ProductRequest request, Integer id){
+    // A concurrent write is reported, never overwritten: with or without an expected version, losing the version check fails.
+    public ProductResponse update(ProductRequest request, Integer id, Long expectedVersion){
         validateProductDataInformed(request);
         validateInformedId(id);
         validateCategoryAndSupplierInformed(request);
         var category = categoryService.findById(request.getCategoryId());
         var supplier = supplierService.findById(request.getSupplierId());
-        var product = Product.of(request, supplier, category);
-        product.setId(id);
-        iProductRepository.save(product);
+        Product product;
+        try{
+            product = applyUpdate(request, id, expectedVersion, supplier, category);
+        } catch (OptimisticLockingFailureException ex){
+            throw new PreconditionFailedException("The product was changed since the given version.");
+        }
+        searchService.index(SearchDomain.PRODUCT, id, product.getName());
+        productStockAvailabilityService.evict(List.of(id));
+        productResponseCache.evictProducts(List.of(id));
+        productResponseCache.evictListsOf(category.getId(), supplier.getId());
         return ProductResponse.of(product);
     }
 
+    private Product applyUpdate(ProductRequest request,
+                                Integer id,
+                                Long expectedVersion,
+                                Supplier supplier,
+                                Category category){
+        // The engine's stock is reset first and in the same transaction, so it takes its locks in the order
+        // reservations and the ledger compactor do and nothing can slip in between the two writes.
+        return transactionTemplate.execute(status -> {
+            stockReservationEngine.resetStock(id, request.getQuantityAvailable());
+            var product = findById(id);
+            if(expectedVersion != null && !expectedVersion.equals(product.getVersion())){
+                throw new PreconditionFailedException("The product was changed since the given version.");
+            }
+            product.update(request, supplier, category);
+            return iProductRepository.saveAndFlush(product);
+        });
+    }
+
+    @Transactional
+    public ProductStockAdjustmentResponse adjustStock(ProductStockAdjustmentRequest request){
+        validateStockAdjustment(request);
+        var replayed = stockAdjustmentBatchRegistry.claim(request.getBatchId());
+        if(replayed.isPresent()){
+            return replayed.get();
+        }
+        var deltas = new TreeMap<Integer, Integer>();
+        request
+                .getAdjustments()
+                .forEach(adjustment -> deltas.merge(adjustment.getProductId(), adjustment.getQuantity(), Integer::sum));
+        var result = stockReservationEngine.adjust(request.getBatchId(), deltas);
+        if(!result.isApproved()){
+            var reject = result.getRejects().get(0);
+            throw new ValidationException(String.format("The stock of product %s could not be adjusted: %s.",
+                    reject.getProductId(), reject.getReason()));
+        }
+        var levels = stockReservationEngine
+                .findAvailable(deltas.keySet())
+                .entrySet()
+                .stream()
+                .map(level -> new ProductStockLevel(level.getKey(), level.getValue()))
+                .sorted(Comparator.comparing(ProductStockLevel::getProductId))
+                .collect(Collectors.toList());
+        var response = new ProductStockAdjustmentResponse(request.getBatchId(), false, levels);
+        stockAdjustmentBatchRegistry.processed(response);
+        productStockAvailabilityService.evict(deltas.keySet());
+        productResponseCache.evictProducts(deltas.keySet());
+        return response;
+    }
+
     public Boolean existsByCategoryId(Integer categoryId){
         return iProductRepository.existsByCategoryId(categoryId);
     }
@@ -132,6 +255,9 @@ public class ProductService {
     public SuccessResponse delete(Integer id){
         validateInformedId(id);
         iProductRepository.deleteById(id);
+        searchService.remove(SearchDomain.PRODUCT, id);
+        productStockAvailabilityService.evict(List.of(id));
+        productResponseCache.evictProducts(List.of(id));
         return SuccessResponse.create("This product was deleted.");
     }
 
@@ -141,7 +267,7 @@ public class ProductService {
         }
     }
 
-    private void validateProductDataInformed(ProductRequest request){
+    void validateProductDataInformed(ProductRequest request){
         if(isBlank(request.getName())){
             throw new ValidationException("The product's name was not informed.");
         }
@@ -153,7 +279,23 @@ public class ProductService {
         }
     }
 
-    private void validateCategoryAndSupplierInformed(ProductRequest request){
+    private void validateStockAdjustment(ProductStockAdjustmentRequest request){
+        if(isEmpty(request) || isBlank(request.getBatchId())){
+            throw new ValidationException("The stock adjustment batch ID must be informed.");
+        }
+        if(isEmpty(request.getAdjustments())){
+            throw new ValidationException("The stock adjustments must be informed.");
+        }
+        request
+                .getAdjustments()
+                .forEach(adjustment -> {
+                    if(isEmpty(adjustment.getProductId()) || isEmpty(adjustment.getQuantity())){
+                        throw new ValidationException("The productID and the quantity should be informed.");
+                    }
+                });
+    }
+
+    void validateCategoryAndSupplierInformed(ProductRequest request){
         if(isBlank(String.valueOf(request.getCategoryId()))){
             throw new ValidationException("The category Id name was not informed.");
         }
@@ -162,33 +304,70 @@ public class ProductService {
         }
     }
 
-    public void updateProductStock(ProductStockDTO productStockDTO){
+    @Transactional
+    public List<SalesConfirmationDTO> reserveProductsStock(List<ProductStockDTO> productStockMessages){
+        return productStockMessages
+                .stream()
+                .map(this::reserveProductStock)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public SalesConfirmationDTO reserveProductStock(ProductStockDTO productStockDTO){
         try{
             validateStockUpdateData(productStockDTO);
+            var processedConfirmation = processedStockMessageRegistry.claim(productStockDTO);
+            if(processedConfirmation.isPresent()){
+                log.info("The stock for salesId {} was already processed, re-emitting the {} confirmation.",
+                        productStockDTO.getSalesId(), processedConfirmation.get().getStatus());
+                return salesConfirmationOutboxService.register(processedConfirmation.get());
+            }
             updateStock(productStockDTO);
-        } catch (Exception ex){
-            log.error("Error while trying to update stock for message with error: {}", ex.getMessage(), ex);
-            var rejectedMessage = new SalesConfirmationDTO(productStockDTO.getSalesId(),
-                    SalesStatus.REJECTED, productStockDTO.getTransactionid());
-            salesConfirmationSender.sendSalesConfirmationMessage(rejectedMessage);
+            productSalesProjectionService.project(productStockDTO);
+            return confirmProductStock(productStockDTO, SalesStatus.APPROVED);
+        } catch (ValidationException ex){
+            log.info("Stock update rejected for salesId {} with reason: {}", productStockDTO.getSalesId(), ex.getMessage());
+            return confirmProductStock(productStockDTO, SalesStatus.REJECTED);
         }
     }
 
-    private void updateStock(ProductStockDTO productStockDTO){
-        var productsForUpdate = new ArrayList<Product>();
+    // Used once a redelivered message keeps failing; whatever an earlier delivery stored is re-emitted instead.
+    @Transactional
+    public SalesConfirmationDTO rejectProductStock(ProductStockDTO productStockDTO){
+        var processedConfirmation = processedStockMessageRegistry.claimRejection(productStockDTO);
+        if(processedConfirmation.isPresent()){
+            log.info("The stock for salesId {} was already processed, re-emitting the {} confirmation.",
+                    productStockDTO.getSalesId(), processedConfirmation.get().getStatus());
+            return salesConfirmationOutboxService.register(processedConfirmation.get());
+        }
+        return salesConfirmationOutboxService.register(new SalesConfirmationDTO(productStockDTO.getSalesId(),
+                SalesStatus.REJECTED, productStockDTO.getTransactionid()));
+    }
 
-        productStockDTO.getProducts()
-                .forEach(salesProduct -> {
-                    var existingProduct = findById(salesProduct.getProductId());
-                    validateQuantityInStock(salesProduct, existingProduct);
-                    existingProduct.updateStock(salesProduct.getQuantity());
-                    productsForUpdate.add(existingProduct);
-                });
-        if(!isEmpty(productsForUpdate)){
-            iProductRepository.saveAll(productsForUpdate);
-            var approvedMessage = new SalesConfirmationDTO(productStockDTO.getSalesId(), SalesStatus.APPROVED,
-                    productStockDTO.getTransactionid());
-            salesConfirmationSender.sendSalesConfirmationMessage(approvedMessage);
+    private SalesConfirmationDTO confirmProductStock(ProductStockDTO productStockDTO, SalesStatus status){
+        var confirmation = new SalesConfirmationDTO(productStockDTO.getSalesId(), status,
+                productStockDTO.getTransactionid());
+        processedStockMessageRegistry.processed(confirmation);
+        return salesConfirmationOutboxService.register(confirmation);
+    }
+
+    private void updateStock(ProductStockDTO productStockDTO){
+        var reservation = stockReservationEngine.reserve(productStockDTO.getSalesId(), productStockDTO.getProducts());
+        var productIds = productStockDTO
+                .getProducts()
+                .stream()
+                .map(ProductQuantityDTO::getProductId)
+                .collect(Collectors.toList());
+        productStockAvailabilityService.evict(productIds);
+        productResponseCache.evictProducts(productIds);
+        if(!reservation.isApproved()){
+            reservation
+                    .getRejects()
+                    .forEach(reject -> log.info("Stock reservation rejected for product {} with reason {}: requested {}, available {} | salesId: {}",
+                            reject.getProductId(), reject.getReason(), reject.getRequested(), reject.getAvailable(),
+                            productStockDTO.getSalesId()));
+            throw new ValidationException(
+                    String.format("The product %s is out of stock.", reservation.getRejects().get(0).getProductId()));
         }
     }
 
@@ -215,66 +394,58 @@ public class ProductService {
                 });
     }
 
-    private void validateQuantityInStock(ProductQuantityDTO productQuantityDTO,
-                                         Product existingProduct){
-        if(productQuantityDTO.getQuantity() > existingProduct.getQuantityAvailable()){
-            throw new ValidationException(
-                    String.format("The product %s is out of stock.", existingProduct.getId()));
-        }
-    }
-
-    public ProductSalesResponse findProductSalesById(Integer id){
-        var product = findById(id);
-        try{
-            var currentRequest = getCurrentRequest();
-            var token = currentRequest.getHeader(AUTHORIZATION);
-            var transactionId = currentRequest.getHeader(TRANSACTION_ID);
-            var serviceid = currentRequest.getAttribute(SERVICE_ID);
-            log.info("Sending GET Request to orders by productId with data {} | [transactionID: ${} | serviceID: ${}",
-                    product, transactionId, serviceid);
-            var sales = salesClient.findSalesByProductId(product.getId(), token, transactionId)
-                    .orElseThrow(() -> new ValidationException("The sales was not found by this product."));
-            log.info("Receiving response from orders by productId with data {} | [transactionID: ${} | serviceID: ${}",
-                    new ObjectMapper().writeValueAsString(sales), transactionId, serviceid);
-            return ProductSalesResponse.of(product, sales.getSalesId());
-        } catch (Exception ex){
-            ex.printStackTrace();
-            throw new ValidationException("There was an error trying to get the product's sales.");
+    // The product load and the sales-api call run concurrently, without holding the request thread.
+    public Mono<ProductSalesResponse> findProductSalesById(Integer id){
+        validateInformedId(id);
+        if(productSalesProjectionService.isReady()){
+            return Mono.fromCallable(() -> ProductSalesResponse.of(findWithCategoryAndSupplier(id), productSalesProjectionService.findSalesIds(id)));
         }
+        var currentRequest = getCurrentRequest();
+        var token = currentRequest.getHeader(AUTHORIZATION);
+        var transactionId = currentRequest.getHeader(TRANSACTION_ID);
+        var serviceid = currentRequest.getAttribute(SERVICE_ID);
+        log.info("Sending GET Request to orders by productId {} | [transactionID: ${} | serviceID: ${}",
+                id, transactionId, serviceid);
+        var product = Mono
+                .fromCallable(() -> findWithCategoryAndSupplier(id))
+                .subscribeOn(Schedulers.boundedElastic());
+        var sales = resilientSalesClient
+                .findSalesByProductId(id, token, transactionId)
+                .switchIfEmpty(Mono.error(() -> new ValidationException("The sales was not found by this product.")))
+                .doOnNext(response -> log.info("Receiving response from orders by productId with data {} | [transactionID: ${} | serviceID: ${}",
+                        logSampler.payload(SALES_LOG_ROUTE, response), transactionId, serviceid));
+        return Mono
+                .zip(product, sales)
+                .map(result -> ProductSalesResponse.of(result.getT1(), result.getT2().getSalesId()))
+                .onErrorMap(ex -> !(ex instanceof ValidationException), ex -> {
+                    log.error("Error trying to get the sales of product {} | [transactionID: ${} | serviceID: ${}",
+                            id, transactionId, serviceid, ex);
+                    return new ValidationException("There was an error trying to get the product's sales.");
+                });
     }
 
     public SuccessResponse checkProductsStock(ProductCheckStock productCheckStock){
-        try{
-            var currentRequest = getCurrentRequest();
-            var transactionid = currentRequest.getHeader(TRANSACTION_ID);
-            var serviceid = currentRequest.getAttribute(SERVICE_ID);
-            log.info("Request to POST product stock with data {} | [transactionID: ${} | serviceID: ${}",
-                    new ObjectMapper().writeValueAsString(productCheckStock),
-                    transactionid, serviceid);
-            if(isEmpty(productCheckStock)){
-                throw new ValidationException("The request data and products must be informed.");
-            }
-            productCheckStock
-                    .getProducts()
-                    .forEach(this::validateStock);
-
-            var response = SuccessResponse.create("The stock is ok!!");
-            log.info("Response to POST product stock with data {} | [transactionID: ${} | serviceID: ${}",
-                    new ObjectMapper().writeValueAsString(response),
-                    transactionid, serviceid);
-            return response;
-        } catch (Exception ex){
-            throw new ValidationException(ex.getMessage());
-        }
+        var report = checkProductsStockReport(productCheckStock);
+        report
+                .firstShortage()
+                .ifPresent(shortage -> {
+                    throw new ValidationException(String.format("The product %s is out of stock", shortage.getProductId()));
+                });
+        return SuccessResponse.create("The stock is ok!!");
     }
 
-    private void validateStock(ProductQuantityDTO productQuantity){
-        if(isEmpty(productQuantity.getProductId()) || isEmpty(productQuantity.getQuantity())){
-            throw new ValidationException("Product ID and quantity must be informed.");
-        }
-        var product = findById(productQuantity.getProductId());
-        if(productQuantity.getQuantity() > product.getQuantityAvailable()){
-            throw new ValidationException(String.format("The product %s is out of stock", product.getId()));
+    public ProductStockReport checkProductsStockReport(ProductCheckStock productCheckStock){
+        var currentRequest = getCurrentRequest();
+        var transactionid = currentRequest.getHeader(TRANSACTION_ID);
+        var serviceid = currentRequest.getAttribute(SERVICE_ID);
+        log.info("Request to POST product stock with data {} | [transactionID: ${} | serviceID: ${}",
+                logSampler.payload(CHECK_STOCK_LOG_ROUTE, productCheckStock), transactionid, serviceid);
+        if(isEmpty(productCheckStock)){
+            throw new ValidationException("The request data and products must be informed.");
         }
+        var report = productStockAvailabilityService.checkAvailability(productCheckStock.getProducts());
+        log.info("Response to POST product stock with data {} | [transactionID: ${} | serviceID: ${}",
+                logSampler.payload(CHECK_STOCK_LOG_ROUTE, report), transactionid, serviceid);
+        return report;
     }
 }
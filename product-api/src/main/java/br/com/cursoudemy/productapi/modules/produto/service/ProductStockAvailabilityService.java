@@ -0,0 +1,90 @@
+package br.com.cursoudemy.productapi.modules.produto.service;
+
+import br.com.cursoudemy.productapi.config.exception.ValidationException;
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductQuantityDTO;
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductStockAvailability;
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductStockReport;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.springframework.util.ObjectUtils.isEmpty;
+
+@Service
+public class ProductStockAvailabilityService {
+
+    private final StockReservationEngine stockReservationEngine;
+
+    private final Cache<Integer, Integer> availabilitySnapshot;
+
+    public ProductStockAvailabilityService(StockReservationEngine stockReservationEngine,
+                                           @Value("${app-config.stock.availability-snapshot.enabled}") Boolean snapshotEnabled,
+                                           @Value("${app-config.stock.availability-snapshot.ttl}") Long snapshotTtl,
+                                           @Value("${app-config.stock.availability-snapshot.max-size}") Long snapshotMaxSize){
+        this.stockReservationEngine = stockReservationEngine;
+        this.availabilitySnapshot = snapshotEnabled
+                ? Caffeine
+                    .newBuilder()
+                    .expireAfterWrite(Duration.ofMillis(snapshotTtl))
+                    .maximumSize(snapshotMaxSize)
+                    .build()
+                : null;
+    }
+
+    @Transactional(readOnly = true)
+    public ProductStockReport checkAvailability(List<ProductQuantityDTO> products){
+        if(isEmpty(products)){
+            throw new ValidationException("The request data and products must be informed.");
+        }
+        var requested = new LinkedHashMap<Integer, Integer>();
+        products.forEach(product -> {
+            if(isEmpty(product.getProductId()) || isEmpty(product.getQuantity())){
+                throw new ValidationException("Product ID and quantity must be informed.");
+            }
+            requested.merge(product.getProductId(), product.getQuantity(), Integer::sum);
+        });
+        var available = findQuantitiesAvailable(requested.keySet());
+        return ProductStockReport.of(requested
+                .entrySet()
+                .stream()
+                .map(entry -> ProductStockAvailability.of(entry.getKey(), entry.getValue(), available.get(entry.getKey())))
+                .collect(Collectors.toList()));
+    }
+
+    public void evict(Collection<Integer> productIds){
+        if(availabilitySnapshot != null){
+            availabilitySnapshot.invalidateAll(productIds);
+        }
+    }
+
+    // All the ids missing from the snapshot are resolved with a single IN query.
+    private Map<Integer, Integer> findQuantitiesAvailable(Collection<Integer> productIds){
+        var available = new HashMap<Integer, Integer>();
+        if(availabilitySnapshot != null){
+            available.putAll(availabilitySnapshot.getAllPresent(productIds));
+        }
+        var missing = productIds
+                .stream()
+                .filter(productId -> !available.containsKey(productId))
+                .collect(Collectors.toList());
+        if(missing.isEmpty()){
+            return available;
+        }
+        var levels = stockReservationEngine.findAvailable(missing);
+        if(availabilitySnapshot != null){
+            availabilitySnapshot.putAll(levels);
+        }
+        available.putAll(levels);
+        return available;
+    }
+}
@@ -0,0 +1,51 @@
+package br.com.cursoudemy.productapi.modules.produto.service;
+
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductQuantityDTO;
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.ProductStockLevel;
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.StockReservationResult;
+import br.com.cursoudemy.productapi.modules.produto.repository.IProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+
+// Reserves by decrementing PRODUCT.QUANTITY_AVAILABLE in place.
+@Component(StockReservationEngine.BASE)
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app-config.stock.mode", havingValue = "row", matchIfMissing = true)
+public class RowStockReservationEngine implements StockReservationEngine {
+
+    private final IProductRepository iProductRepository;
+
+    @Override
+    public StockReservationResult reserve(String salesId, List<ProductQuantityDTO> products){
+        return iProductRepository.reserveStock(products);
+    }
+
+    @Override
+    public Map<Integer, Integer> findAvailable(Collection<Integer> productIds){
+        return iProductRepository
+                .findStockLevelsByIdIn(productIds)
+                .stream()
+                .collect(Collectors.toMap(ProductStockLevel::getProductId, ProductStockLevel::getQuantityAvailable));
+    }
+
+    @Override
+    public void resetStock(Integer productId, Integer quantityAvailable){
+    }
+
+    @Override
+    public StockReservationResult adjust(String reference, SortedMap<Integer, Integer> deltas){
+        return iProductRepository.adjustStock(deltas);
+    }
+
+    @Override
+    public void release(String reference, Integer productId, Integer quantity){
+        iProductRepository.increaseQuantityAvailable(productId, quantity);
+    }
+}
@@ -0,0 +1,51 @@
+package br.com.cursoudemy.productapi.modules.produto.service;
+
+import br.com.cursoudemy.productapi.config.exception.ValidationException;
+import br.com.cursoudemy.productapi.modules.produto.dto.response.ProductStockAdjustmentResponse;
+import br.com.cursoudemy.productapi.modules.produto.repository.IStockAdjustmentBatchRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+public class StockAdjustmentBatchRegistry {
+
+    private static final Integer INSERTED = 1;
+
+    private final IStockAdjustmentBatchRepository iStockAdjustmentBatchRepository;
+
+    private final ObjectMapper objectMapper;
+
+    // Claims the batch ID; a concurrent retry waits on the insert and then finds the committed response.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<ProductStockAdjustmentResponse> claim(String batchId){
+        if(INSERTED.equals(iStockAdjustmentBatchRepository.insertIfAbsent(batchId))){
+            return Optional.empty();
+        }
+        var batch = iStockAdjustmentBatchRepository
+                .findById(batchId)
+                .orElseThrow(() -> new ValidationException("The stock adjustment batch could not be claimed."));
+        try{
+            var response = objectMapper.readValue(batch.getResponse(), ProductStockAdjustmentResponse.class);
+            response.setReplayed(true);
+            return Optional.of(response);
+        } catch (JsonProcessingException | IllegalArgumentException ex){
+            throw new ValidationException("The stock adjustment batch was already received but has no result.");
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void processed(ProductStockAdjustmentResponse response){
+        try{
+            iStockAdjustmentBatchRepository.updateResponse(response.getBatchId(), objectMapper.writeValueAsString(response));
+        } catch (JsonProcessingException ex){
+            throw new ValidationException("The stock adjustment result could not be stored.");
+        }
+    }
+}
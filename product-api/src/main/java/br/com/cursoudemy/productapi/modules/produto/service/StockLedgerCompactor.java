@@ -0,0 +1,68 @@
+package br.com.cursoudemy.productapi.modules.produto.service;
+
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.StockTail;
+import br.com.cursoudemy.productapi.modules.produto.repository.IProductRepository;
+import br.com.cursoudemy.productapi.modules.produto.repository.IStockMovementRepository;
+import br.com.cursoudemy.productapi.modules.produto.repository.IStockSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Folds ledger movements into the snapshots and mirrors the result on PRODUCT.QUANTITY_AVAILABLE.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app-config.stock.mode", havingValue = "ledger")
+public class StockLedgerCompactor {
+
+    private final IStockSnapshotRepository iStockSnapshotRepository;
+
+    private final IStockMovementRepository iStockMovementRepository;
+
+    private final IProductRepository iProductRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ProductResponseCache productResponseCache;
+
+    @Value("${app-config.stock.ledger.compaction-batch-size}")
+    private Integer batchSize;
+
+    @Scheduled(fixedDelayString = "${app-config.stock.ledger.compaction-interval}")
+    public void compact(){
+        Integer compacted;
+        do{
+            compacted = transactionTemplate.execute(status -> compactBatch());
+        } while(batchSize.equals(compacted));
+    }
+
+    private Integer compactBatch(){
+        var productIds = iStockMovementRepository.findProductsWithTail(PageRequest.of(0, batchSize));
+        if(productIds.isEmpty()){
+            return 0;
+        }
+        var snapshots = iStockSnapshotRepository.findAllForUpdate(productIds);
+        var tails = iStockMovementRepository
+                .findTails(productIds)
+                .stream()
+                .collect(Collectors.toMap(StockTail::getProductId, Function.identity()));
+        snapshots.forEach(snapshot -> {
+            var tail = tails.get(snapshot.getProductId());
+            if(tail != null){
+                snapshot.fold(tail.getDelta(), tail.getLastMovementId());
+                iProductRepository.updateQuantityAvailable(snapshot.getProductId(), snapshot.getQuantity());
+            }
+        });
+        productResponseCache.evictProducts(productIds);
+        log.debug("Compacted the stock ledger of {} products.", productIds.size());
+        return productIds.size();
+    }
+}
@@ -0,0 +1,26 @@
+package br.com.cursoudemy.productapi.modules.produto.service;
+
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductQuantityDTO;
+import br.com.cursoudemy.productapi.modules.produto.dto.stock.StockReservationResult;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+public interface StockReservationEngine {
+
+    // Name of the engine that talks to the database, wrapped by the hot product engine when it is enabled.
+    String BASE = "baseStockReservationEngine";
+
+    StockReservationResult reserve(String salesId, List<ProductQuantityDTO> products);
+
+    Map<Integer, Integer> findAvailable(Collection<Integer> productIds);
+
+    void resetStock(Integer productId, Integer quantityAvailable);
+
+    void release(String reference, Integer productId, Integer quantity);
+
+    // Applies signed deltas all together, or none of them when any product would go below zero.
+    StockReservationResult adjust(String reference, SortedMap<Integer, Integer> deltas);
+}
@@ -0,0 +1,20 @@
+package br.com.cursoudemy.productapi.modules.sales.client;
+
+import br.com.cursoudemy.productapi.modules.sales.dto.SalesProductResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Getter
+@AllArgsConstructor
+public class CachedSales {
+
+    private final SalesProductResponse response;
+    private final Instant fetchedAt;
+
+    public boolean isStale(Duration freshFor){
+        return fetchedAt.plus(freshFor).isBefore(Instant.now());
+    }
+}
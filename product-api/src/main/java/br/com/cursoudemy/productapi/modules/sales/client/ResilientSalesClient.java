@@ -0,0 +1,140 @@
+package br.com.cursoudemy.productapi.modules.sales.client;
+
+import br.com.cursoudemy.productapi.config.exception.ValidationException;
+import br.com.cursoudemy.productapi.modules.sales.dto.SalesClientStats;
+import br.com.cursoudemy.productapi.modules.sales.dto.SalesProductResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+public class ResilientSalesClient implements MeterBinder {
+
+    private static final String SALES_API = "sales-api";
+
+    private final SalesClient salesClient;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final Bulkhead bulkhead;
+
+    private final Cache<Integer, CachedSales> salesCache;
+
+    private final Duration freshFor;
+
+    private final Set<Integer> refreshing = ConcurrentHashMap.newKeySet();
+
+    public ResilientSalesClient(SalesClient salesClient,
+                                @Value("${app-config.resilience.sales.failure-rate-threshold}") Float failureRateThreshold,
+                                @Value("${app-config.resilience.sales.slow-call-rate-threshold}") Float slowCallRateThreshold,
+                                @Value("${app-config.resilience.sales.slow-call-threshold}") Long slowCallThreshold,
+                                @Value("${app-config.resilience.sales.sliding-window-size}") Integer slidingWindowSize,
+                                @Value("${app-config.resilience.sales.wait-in-open-state}") Long waitInOpenState,
+                                @Value("${app-config.resilience.sales.half-open-calls}") Integer halfOpenCalls,
+                                @Value("${app-config.resilience.sales.max-concurrent-calls}") Integer maxConcurrentCalls,
+                                @Value("${app-config.resilience.sales.cache.fresh-for}") Long freshFor,
+                                @Value("${app-config.resilience.sales.cache.stale-for}") Long staleFor,
+                                @Value("${app-config.resilience.sales.cache.max-size}") Long cacheMaxSize){
+        this.salesClient = salesClient;
+        this.circuitBreaker = CircuitBreaker.of(SALES_API, CircuitBreakerConfig
+                .custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallThreshold))
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(slidingWindowSize)
+                .waitDurationInOpenState(Duration.ofMillis(waitInOpenState))
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .ignoreExceptions(ValidationException.class)
+                .build());
+        this.bulkhead = Bulkhead.of(SALES_API, BulkheadConfig
+                .custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        this.salesCache = Caffeine
+                .newBuilder()
+                .expireAfterWrite(Duration.ofMillis(staleFor))
+                .maximumSize(cacheMaxSize)
+                .recordStats()
+                .build();
+        this.freshFor = Duration.ofMillis(freshFor);
+        this.circuitBreaker
+                .getEventPublisher()
+                .onStateTransition(event -> log.warn("Sales API circuit breaker transition: {}", event.getStateTransition()));
+    }
+
+    // Stale entries are served immediately while a single background call refreshes them.
+    public Mono<SalesProductResponse> findSalesByProductId(Integer productId, String authorization, String transactionId){
+        var cached = salesCache.getIfPresent(productId);
+        if(cached == null){
+            return fetch(productId, authorization, transactionId);
+        }
+        if(cached.isStale(freshFor)){
+            refreshInBackground(productId, authorization, transactionId);
+        }
+        return Mono.just(cached.getResponse());
+    }
+
+    public SalesClientStats getStats(){
+        var metrics = circuitBreaker.getMetrics();
+        return new SalesClientStats(circuitBreaker.getState().name(), metrics.getFailureRate(),
+                metrics.getSlowCallRate(), metrics.getNumberOfNotPermittedCalls(),
+                bulkhead.getMetrics().getAvailableConcurrentCalls(), salesCache.estimatedSize());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry){
+        Gauge.builder("sales.client.circuit.state", circuitBreaker, breaker -> breaker.getState().getOrder())
+                .description("0 closed, 1 open, 2 half open, 3 disabled, 4 forced open, 5 metrics only")
+                .register(registry);
+        Gauge.builder("sales.client.circuit.failure-rate", circuitBreaker, breaker -> breaker.getMetrics().getFailureRate())
+                .register(registry);
+        Gauge.builder("sales.client.bulkhead.available", bulkhead, semaphore -> semaphore.getMetrics().getAvailableConcurrentCalls())
+                .register(registry);
+        CaffeineCacheMetrics.monitor(registry, salesCache, "sales.client.sales");
+    }
+
+    private Mono<SalesProductResponse> fetch(Integer productId, String authorization, String transactionId){
+        return salesClient
+                .findSalesByProductIdAsync(productId, authorization, transactionId)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .doOnNext(response -> salesCache.put(productId, new CachedSales(response, Instant.now())))
+                .onErrorMap(ex -> ex instanceof CallNotPermittedException || ex instanceof BulkheadFullException,
+                        ex -> new ValidationException("The sales service is unavailable at the moment."));
+    }
+
+    private void refreshInBackground(Integer productId, String authorization, String transactionId){
+        if(!refreshing.add(productId)){
+            return;
+        }
+        fetch(productId, authorization, transactionId)
+                .doFinally(signal -> refreshing.remove(productId))
+                .subscribe(
+                        response -> log.debug("Refreshed cached sales for product {}.", productId),
+                        ex -> log.warn("Could not refresh cached sales for product {}: {}", productId, ex.getMessage()));
+    }
+}
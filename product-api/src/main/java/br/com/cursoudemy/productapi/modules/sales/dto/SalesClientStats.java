@@ -0,0 +1,18 @@
+package br.com.cursoudemy.productapi.modules.sales.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesClientStats {
+
+    private String circuitState;
+    private Float failureRate;
+    private Float slowCallRate;
+    private Long notPermittedCalls;
+    private Integer availableBulkheadPermits;
+    private Long cachedProducts;
+}
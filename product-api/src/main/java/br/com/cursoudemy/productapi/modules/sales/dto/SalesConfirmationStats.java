@@ -0,0 +1,15 @@
+package br.com.cursoudemy.productapi.modules.sales.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesConfirmationStats {
+
+    private Integer inFlight;
+    private Long confirmed;
+    private Long failed;
+}
@@ -1,5 +1,6 @@
 package br.com.cursoudemy.productapi.modules.sales.dto;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,5 +12,6 @@ import java.util.List;
 @AllArgsConstructor
 public class SalesProductResponse {
 
+    @JsonAlias("salesIds")
     private List<String> salesId;
 }
@@ -0,0 +1,28 @@
+package br.com.cursoudemy.productapi.modules.sales.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@IdClass(ProductSaleId.class)
+@Table(name = "PRODUCT_SALE")
+public class ProductSale {
+
+    @Id
+    @Column(name = "PRODUCT_ID", nullable = false)
+    private Integer productId;
+
+    @Id
+    @Column(name = "SALES_ID", nullable = false)
+    private String salesId;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package br.com.cursoudemy.productapi.modules.sales.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSaleId implements Serializable {
+
+    private Integer productId;
+    private String salesId;
+}
@@ -0,0 +1,24 @@
+package br.com.cursoudemy.productapi.modules.sales.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One row per projection, written once its backfill has covered every product.
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "PROJECTION_STATE")
+public class ProjectionState {
+
+    @Id
+    @Column(name = "NAME", nullable = false)
+    private String name;
+
+    @Column(name = "BACKFILLED_AT", nullable = false)
+    private LocalDateTime backfilledAt;
+}
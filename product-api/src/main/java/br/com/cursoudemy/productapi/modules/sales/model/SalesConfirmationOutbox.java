@@ -0,0 +1,72 @@
+package br.com.cursoudemy.productapi.modules.sales.model;
+
+import br.com.cursoudemy.productapi.modules.sales.dto.SalesConfirmationDTO;
+import br.com.cursoudemy.productapi.modules.sales.enums.SalesStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "SALES_CONFIRMATION_OUTBOX",
+       indexes = @Index(name = "IDX_SALES_CONFIRMATION_OUTBOX_SENT_AT", columnList = "SENT_AT, ID"))
+public class SalesConfirmationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "SALES_ID", nullable = false)
+    private String salesId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", nullable = false)
+    private SalesStatus status;
+
+    @Column(name = "TRANSACTION_ID")
+    private String transactionid;
+
+    @Column(name = "ATTEMPTS", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "CREATED_AT", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "SENT_AT")
+    private LocalDateTime sentAt;
+
+    // Set while a relay publishes the row, so other relays skip it without a lock held across the broker confirm,
+    // and after a failed publish to hold the row back until its retry is due.
+    @Column(name = "LEASED_UNTIL")
+    private LocalDateTime leasedUntil;
+
+    // Set once the row ran out of attempts; parked rows are no longer relayed nor purged.
+    @Column(name = "FAILED_AT")
+    private LocalDateTime failedAt;
+
+    @PrePersist
+    public void prePersist(){
+        createdAt = LocalDateTime.now();
+        attempts = 0;
+    }
+
+    public static SalesConfirmationOutbox of(SalesConfirmationDTO message){
+        return SalesConfirmationOutbox
+                .builder()
+                .salesId(message.getSalesId())
+                .status(message.getStatus())
+                .transactionid(message.getTransactionid())
+                .build();
+    }
+
+    public SalesConfirmationDTO toMessage(){
+        return new SalesConfirmationDTO(salesId, status, transactionid);
+    }
+}
@@ -0,0 +1,141 @@
+package br.com.cursoudemy.productapi.modules.sales.rabbitmq;
+
+import br.com.cursoudemy.productapi.modules.sales.model.SalesConfirmationOutbox;
+import br.com.cursoudemy.productapi.modules.sales.repository.ISalesConfirmationOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SalesConfirmationOutboxRelay {
+
+    private static final Integer ZERO = 0;
+    private static final String PARKED_METRIC = "sales.confirmation.outbox.parked";
+
+    private final ISalesConfirmationOutboxRepository iSalesConfirmationOutboxRepository;
+
+    private final SalesConfirmationSender salesConfirmationSender;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app-config.outbox.sales-confirmation.relay-enabled}")
+    private Boolean relayEnabled;
+
+    @Value("${app-config.outbox.sales-confirmation.batch-size}")
+    private Integer batchSize;
+
+    @Value("${app-config.outbox.sales-confirmation.lease-time}")
+    private Long leaseTime;
+
+    @Value("${app-config.outbox.sales-confirmation.max-attempts}")
+    private Integer maxAttempts;
+
+    @Value("${app-config.outbox.sales-confirmation.initial-backoff}")
+    private Long initialBackoff;
+
+    @Value("${app-config.outbox.sales-confirmation.max-backoff}")
+    private Long maxBackoff;
+
+    @Value("${app-config.outbox.sales-confirmation.retention-hours}")
+    private Long retentionHours;
+
+    @Scheduled(fixedDelayString = "${app-config.outbox.sales-confirmation.relay-interval}")
+    public void relay(){
+        if(!relayEnabled){
+            return;
+        }
+        Integer sent;
+        do{
+            var claimed = transactionTemplate.execute(status -> claimBatch());
+            sent = claimed.isEmpty() ? ZERO : relayBatch(claimed);
+        } while(sent.equals(batchSize));
+    }
+
+    @Scheduled(fixedDelayString = "${app-config.outbox.sales-confirmation.purge-interval}")
+    public void purgeSent(){
+        if(!relayEnabled){
+            return;
+        }
+        var purged = transactionTemplate.execute(status -> iSalesConfirmationOutboxRepository
+                .deleteSentBefore(LocalDateTime.now().minusHours(retentionHours)));
+        log.info("{} sent sales confirmations were purged from the outbox.", purged);
+    }
+
+    // The rows are leased and the claim commits before anything is published, so no row lock or connection is held
+    // while the broker confirms. Other instances skip leased rows; a lease only runs out if its relay died mid-batch.
+    private List<SalesConfirmationOutbox> claimBatch(){
+        var now = LocalDateTime.now();
+        var pending = iSalesConfirmationOutboxRepository.findPendingForUpdate(now, batchSize);
+        if(!pending.isEmpty()){
+            iSalesConfirmationOutboxRepository.lease(ids(pending), now.plus(leaseTime, ChronoUnit.MILLIS));
+        }
+        return pending;
+    }
+
+    private Integer relayBatch(List<SalesConfirmationOutbox> claimed){
+        var results = salesConfirmationSender.send(claimed
+                .stream()
+                .map(SalesConfirmationOutbox::toMessage)
+                .collect(Collectors.toList()));
+        var sentIds = new ArrayList<Long>();
+        var parkedIds = new ArrayList<Long>();
+        var failedIdsByAttempts = new TreeMap<Integer, List<Long>>();
+        for(var index = 0; index < claimed.size(); index++){
+            var outbox = claimed.get(index);
+            if(Boolean.TRUE.equals(results.get(index))){
+                sentIds.add(outbox.getId());
+            } else if(outbox.getAttempts() + 1 >= maxAttempts){
+                parkedIds.add(outbox.getId());
+            } else {
+                failedIdsByAttempts.computeIfAbsent(outbox.getAttempts(), attempts -> new ArrayList<>()).add(outbox.getId());
+            }
+        }
+        var now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if(!sentIds.isEmpty()){
+                iSalesConfirmationOutboxRepository.markSent(sentIds, now);
+            }
+            failedIdsByAttempts.forEach((attempts, failedIds) -> {
+                log.warn("{} sales confirmations were not confirmed by the broker and will be relayed again in {} ms.",
+                        failedIds.size(), backoff(attempts));
+                iSalesConfirmationOutboxRepository
+                        .incrementAttempts(failedIds, now.plus(backoff(attempts), ChronoUnit.MILLIS));
+            });
+            if(!parkedIds.isEmpty()){
+                log.error("{} sales confirmations failed {} times and were parked: {}", parkedIds.size(), maxAttempts, parkedIds);
+                iSalesConfirmationOutboxRepository.park(parkedIds, now);
+            }
+        });
+        if(!parkedIds.isEmpty()){
+            meterRegistry.counter(PARKED_METRIC).increment(parkedIds.size());
+        }
+        return sentIds.size();
+    }
+
+    // Doubles with every failed attempt, so a row the broker keeps refusing stops crowding out the new ones.
+    private long backoff(Integer attempts){
+        return Math.min(initialBackoff << Math.min(attempts, 30), maxBackoff);
+    }
+
+    private List<Long> ids(List<SalesConfirmationOutbox> outboxes){
+        return outboxes
+                .stream()
+                .map(SalesConfirmationOutbox::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -1,22 +1,51 @@
 package br.com.cursoudemy.productapi.modules.sales.rabbitmq;
 
+import br.com.cursoudemy.productapi.config.logging.LogSampler;
 import br.com.cursoudemy.productapi.modules.sales.dto.SalesConfirmationDTO;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import br.com.cursoudemy.productapi.modules.sales.dto.SalesConfirmationStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class SalesConfirmationSender {
 
+    private static final String LOG_ROUTE = "sales-confirmation.sender";
+
     private final RabbitTemplate rabbitTemplate;
 
-    private final ObjectMapper objectMapper;
+    private final LogSampler logSampler;
+
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong confirmed = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private Timer ackLatency;
+
+    private Timer nackLatency;
 
     @Value("${app-config.rabbit.exchange.product}")
     private String productTopicExchange;
@@ -24,13 +53,80 @@ public class SalesConfirmationSender {
     @Value("${app-config.rabbit.routingKey.sales-confirmation}")
     private String salesConfirmationKey;
 
-    public void sendSalesConfirmationMessage(SalesConfirmationDTO message){
+    @Value("${app-config.rabbit.publisher.sales-confirmation.confirm-timeout}")
+    private Long confirmTimeout;
+
+    @PostConstruct
+    public void init(){
+        ackLatency = confirmLatencyTimer("ack");
+        nackLatency = confirmLatencyTimer("nack");
+        Gauge.builder("sales.confirmation.in-flight", inFlight, AtomicInteger::get).register(meterRegistry);
+        FunctionCounter.builder("sales.confirmation.confirmed", confirmed, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("sales.confirmation.failed", failed, AtomicLong::get).register(meterRegistry);
+    }
+
+    // Publishes the batch over one channel and waits for the broker confirms on the calling thread. The confirms are
+    // completed by the connection's own threads, so no other task has to run for this to return.
+    public List<Boolean> send(List<SalesConfirmationDTO> messages){
+        var confirms = new ArrayList<CorrelationData>(messages.size());
+        var sentAt = System.currentTimeMillis();
         try{
-            log.info("Sendind message: {}", objectMapper.writeValueAsString(message));
-            rabbitTemplate.convertAndSend(productTopicExchange, salesConfirmationKey, message);
-            log.info("Message was sent successfully!");
+            rabbitTemplate.invoke(operations -> {
+                for(var message : messages){
+                    log.info("Sendind message: {}", logSampler.payload(LOG_ROUTE, message));
+                    var correlationData = new CorrelationData(UUID.randomUUID().toString());
+                    operations.convertAndSend(productTopicExchange, salesConfirmationKey, message, correlationData);
+                    confirms.add(correlationData);
+                }
+                return null;
+            });
         } catch (Exception ex){
-            log.info("Error while trying to send sales confirmation message: ", ex);
+            log.error("Error while trying to send a batch of {} sales confirmation messages: ", messages.size(), ex);
+        }
+        inFlight.addAndGet(confirms.size());
+        var deadline = sentAt + confirmTimeout;
+        var results = new ArrayList<Boolean>(messages.size());
+        for(var index = 0; index < messages.size(); index++){
+            var acked = index < confirms.size() && awaitConfirm(confirms.get(index), sentAt, deadline);
+            if(!acked){
+                failed.incrementAndGet();
+            }
+            results.add(acked);
+        }
+        inFlight.addAndGet(-confirms.size());
+        return results;
+    }
+
+    public SalesConfirmationStats getStats(){
+        return new SalesConfirmationStats(inFlight.get(), confirmed.get(), failed.get());
+    }
+
+    private boolean awaitConfirm(CorrelationData correlationData, long sentAt, long deadline){
+        try{
+            var remaining = Math.max(deadline - System.currentTimeMillis(), 0);
+            var confirm = correlationData.getFuture().get(remaining, TimeUnit.MILLISECONDS);
+            var latency = System.currentTimeMillis() - sentAt;
+            if(confirm.isAck()){
+                ackLatency.record(latency, TimeUnit.MILLISECONDS);
+                confirmed.incrementAndGet();
+                return true;
+            }
+            nackLatency.record(latency, TimeUnit.MILLISECONDS);
+            log.warn("A sales confirmation was nacked by the broker: {}", confirm.getReason());
+        } catch (InterruptedException ex){
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ex){
+            log.warn("A sales confirmation was not confirmed by the broker within {} ms.", confirmTimeout);
         }
+        return false;
+    }
+
+    private Timer confirmLatencyTimer(String result){
+        return Timer
+                .builder("sales.confirmation.confirm.latency")
+                .description("Time between publishing a sales confirmation and the broker confirm")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 }
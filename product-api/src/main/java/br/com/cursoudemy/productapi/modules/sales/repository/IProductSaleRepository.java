@@ -0,0 +1,22 @@
+package br.com.cursoudemy.productapi.modules.sales.repository;
+
+import br.com.cursoudemy.productapi.modules.sales.model.ProductSale;
+import br.com.cursoudemy.productapi.modules.sales.model.ProductSaleId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface IProductSaleRepository extends JpaRepository<ProductSale, ProductSaleId> {
+
+    @Modifying
+    @Query(value = "INSERT INTO PRODUCT_SALE (PRODUCT_ID, SALES_ID, CREATED_AT) "
+            + "VALUES (:productId, :salesId, CURRENT_TIMESTAMP) ON CONFLICT (PRODUCT_ID, SALES_ID) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("productId") Integer productId, @Param("salesId") String salesId);
+
+    @Query("SELECT s.salesId FROM ProductSale s WHERE s.productId = :productId ORDER BY s.createdAt, s.salesId")
+    List<String> findSalesIdsByProductId(@Param("productId") Integer productId);
+}
@@ -0,0 +1,7 @@
+package br.com.cursoudemy.productapi.modules.sales.repository;
+
+import br.com.cursoudemy.productapi.modules.sales.model.ProjectionState;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface IProjectionStateRepository extends JpaRepository<ProjectionState, String> {
+}
@@ -0,0 +1,39 @@
+package br.com.cursoudemy.productapi.modules.sales.repository;
+
+import br.com.cursoudemy.productapi.modules.sales.model.SalesConfirmationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ISalesConfirmationOutboxRepository extends JpaRepository<SalesConfirmationOutbox, Long> {
+
+    @Query(value = "SELECT * FROM SALES_CONFIRMATION_OUTBOX WHERE SENT_AT IS NULL AND FAILED_AT IS NULL "
+            + "AND (LEASED_UNTIL IS NULL OR LEASED_UNTIL < :now) ORDER BY ID LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<SalesConfirmationOutbox> findPendingForUpdate(@Param("now") LocalDateTime now, @Param("limit") Integer limit);
+
+    @Modifying
+    @Query("UPDATE SalesConfirmationOutbox o SET o.leasedUntil = :leasedUntil WHERE o.id IN :ids")
+    int lease(@Param("ids") List<Long> ids, @Param("leasedUntil") LocalDateTime leasedUntil);
+
+    @Modifying
+    @Query("UPDATE SalesConfirmationOutbox o SET o.sentAt = :sentAt, o.leasedUntil = NULL WHERE o.id IN :ids")
+    int markSent(@Param("ids") List<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE SalesConfirmationOutbox o SET o.attempts = o.attempts + 1, o.leasedUntil = :retryAt WHERE o.id IN :ids")
+    int incrementAttempts(@Param("ids") List<Long> ids, @Param("retryAt") LocalDateTime retryAt);
+
+    @Modifying
+    @Query("UPDATE SalesConfirmationOutbox o SET o.attempts = o.attempts + 1, o.leasedUntil = NULL, o.failedAt = :failedAt "
+            + "WHERE o.id IN :ids")
+    int park(@Param("ids") List<Long> ids, @Param("failedAt") LocalDateTime failedAt);
+
+    @Modifying
+    @Query("DELETE FROM SalesConfirmationOutbox o WHERE o.sentAt < :sentBefore")
+    int deleteSentBefore(@Param("sentBefore") LocalDateTime sentBefore);
+}
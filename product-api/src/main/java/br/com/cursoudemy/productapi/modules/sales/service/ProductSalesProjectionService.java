@@ -0,0 +1,197 @@
+package br.com.cursoudemy.productapi.modules.sales.service;
+
+import br.com.cursoudemy.productapi.modules.jwt.service.JwtService;
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductQuantityDTO;
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductStockDTO;
+import br.com.cursoudemy.productapi.modules.produto.repository.IProductRepository;
+import br.com.cursoudemy.productapi.modules.sales.client.SalesClient;
+import br.com.cursoudemy.productapi.modules.sales.model.ProjectionState;
+import br.com.cursoudemy.productapi.modules.sales.repository.IProductSaleRepository;
+import br.com.cursoudemy.productapi.modules.sales.repository.IProjectionStateRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.util.ObjectUtils.isEmpty;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSalesProjectionService {
+
+    private static final String BEARER = "Bearer ";
+    private static final String PROJECTION = "product-sales";
+
+    private final IProductSaleRepository iProductSaleRepository;
+
+    private final IProjectionStateRepository iProjectionStateRepository;
+
+    private final IProductRepository iProductRepository;
+
+    private final SalesClient salesClient;
+
+    private final JwtService jwtService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean ready = new AtomicBoolean(false);
+
+    private final AtomicBoolean backfilling = new AtomicBoolean(false);
+
+    // Products whose lookup failed in the last run; a retry only asks sales-api for these.
+    private final Set<Integer> pendingProductIds = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean pendingOnly = false;
+
+    @Value("${app-config.sales-projection.enabled}")
+    private Boolean enabled;
+
+    @Value("${app-config.sales-projection.backfill-concurrency}")
+    private Integer backfillConcurrency;
+
+    @Value("${app-config.sales-projection.backfill-batch-size}")
+    private Integer backfillBatchSize;
+
+    // Approved reservations are projected from startup on, so rows alone do not mean the backfill finished;
+    // only the marker written when it covered every product does.
+    @PostConstruct
+    public void init(){
+        ready.set(iProjectionStateRepository.existsById(PROJECTION));
+    }
+
+    public boolean isReady(){
+        return enabled && ready.get();
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> findSalesIds(Integer productId){
+        return iProductSaleRepository.findSalesIdsByProductId(productId);
+    }
+
+    // Called with the APPROVED stock reservation, so rejected orders never reach the projection.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void project(ProductStockDTO productStockDTO){
+        if(isEmpty(productStockDTO) || isEmpty(productStockDTO.getSalesId()) || isEmpty(productStockDTO.getProducts())){
+            log.warn("Ignoring incomplete sales event for the product sales projection: {}", productStockDTO);
+            return;
+        }
+        productStockDTO
+                .getProducts()
+                .stream()
+                .map(ProductQuantityDTO::getProductId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(productId -> iProductSaleRepository.insertIfAbsent(productId, productStockDTO.getSalesId()));
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup(){
+        backfill();
+    }
+
+    @Scheduled(initialDelayString = "${app-config.sales-projection.backfill-retry-interval}",
+               fixedDelayString = "${app-config.sales-projection.backfill-retry-interval}")
+    public void retryBackfill(){
+        backfill();
+    }
+
+    // Products are looked up a batch at a time, concurrently on the WebClient, with a token minted per batch, and each
+    // batch is stored in its own transaction, so the calling (scheduler) thread never waits on sales-api. A failed
+    // lookup only skips its product, which the next retry picks up.
+    private void backfill(){
+        if(!enabled || ready.get() || !backfilling.compareAndSet(false, true)){
+            return;
+        }
+        try{
+            if(iProjectionStateRepository.existsById(PROJECTION)){
+                ready.set(true);
+                backfilling.set(false);
+                return;
+            }
+            var transactionid = UUID.randomUUID().toString();
+            var productIds = pendingOnly ? List.copyOf(pendingProductIds) : iProductRepository.findAllIds();
+            pendingProductIds.clear();
+            log.info("Backfilling the product sales projection for {} products | [transactionID: ${}]",
+                    productIds.size(), transactionid);
+            Flux
+                    .fromIterable(productIds)
+                    .buffer(backfillBatchSize)
+                    .concatMap(batch -> lookupSales(batch, transactionid))
+                    .filter(sales -> !sales.isEmpty())
+                    .publishOn(Schedulers.boundedElastic())
+                    .doOnNext(this::store)
+                    .doFinally(signal -> backfilling.set(false))
+                    .subscribe(
+                            sales -> {},
+                            ex -> {
+                                pendingOnly = false;
+                                log.warn("Could not backfill the product sales projection, sales will be fetched from sales-api: {}",
+                                        ex.getMessage());
+                            },
+                            () -> complete(transactionid));
+        } catch (Exception ex){
+            backfilling.set(false);
+            log.warn("Could not backfill the product sales projection, sales will be fetched from sales-api: {}",
+                    ex.getMessage());
+        }
+    }
+
+    private Mono<List<Map.Entry<Integer, List<String>>>> lookupSales(List<Integer> productIds, String transactionid){
+        var authorization = BEARER + jwtService.createServiceToken();
+        return Flux
+                .fromIterable(productIds)
+                .flatMap(productId -> salesClient
+                        .findSalesByProductIdAsync(productId, authorization, transactionid)
+                        .map(response -> Map.entry(productId, Objects.requireNonNullElse(response.getSalesId(), List.<String>of())))
+                        .onErrorResume(ex -> {
+                            log.warn("Could not backfill the sales of product {}, it will be retried: {}", productId, ex.getMessage());
+                            pendingProductIds.add(productId);
+                            return Mono.empty();
+                        }),
+                        backfillConcurrency)
+                .filter(sales -> !isEmpty(sales.getValue()))
+                .collectList();
+    }
+
+    private void complete(String transactionid){
+        if(!pendingProductIds.isEmpty()){
+            pendingOnly = true;
+            log.warn("Product sales projection backfill left {} products to retry | [transactionID: ${}]",
+                    pendingProductIds.size(), transactionid);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> iProjectionStateRepository
+                .save(new ProjectionState(PROJECTION, LocalDateTime.now())));
+        ready.set(true);
+        log.info("Product sales projection backfilled | [transactionID: ${}]", transactionid);
+    }
+
+    private void store(List<Map.Entry<Integer, List<String>>> batch){
+        transactionTemplate.executeWithoutResult(status -> batch
+                .forEach(sales -> sales
+                        .getValue()
+                        .forEach(salesId -> iProductSaleRepository.insertIfAbsent(sales.getKey(), salesId))));
+    }
+}
@@ -0,0 +1,22 @@
+package br.com.cursoudemy.productapi.modules.sales.service;
+
+import br.com.cursoudemy.productapi.modules.sales.dto.SalesConfirmationDTO;
+import br.com.cursoudemy.productapi.modules.sales.model.SalesConfirmationOutbox;
+import br.com.cursoudemy.productapi.modules.sales.repository.ISalesConfirmationOutboxRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@AllArgsConstructor
+public class SalesConfirmationOutboxService {
+
+    private final ISalesConfirmationOutboxRepository iSalesConfirmationOutboxRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public SalesConfirmationDTO register(SalesConfirmationDTO message){
+        iSalesConfirmationOutboxRepository.save(SalesConfirmationOutbox.of(message));
+        return message;
+    }
+}
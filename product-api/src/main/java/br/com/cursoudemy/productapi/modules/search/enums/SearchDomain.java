@@ -0,0 +1,8 @@
+package br.com.cursoudemy.productapi.modules.search.enums;
+
+public enum SearchDomain {
+
+    PRODUCT,
+    CATEGORY,
+    SUPPLIER
+}
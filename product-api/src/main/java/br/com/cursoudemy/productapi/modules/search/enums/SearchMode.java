@@ -0,0 +1,7 @@
+package br.com.cursoudemy.productapi.modules.search.enums;
+
+public enum SearchMode {
+
+    MEMORY,
+    PG_TRGM
+}
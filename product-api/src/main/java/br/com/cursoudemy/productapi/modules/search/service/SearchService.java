@@ -0,0 +1,127 @@
+package br.com.cursoudemy.productapi.modules.search.service;
+
+import br.com.cursoudemy.productapi.config.exception.ValidationException;
+import br.com.cursoudemy.productapi.config.pagination.CursorPagination;
+import br.com.cursoudemy.productapi.modules.category.repository.ICategoryRepository;
+import br.com.cursoudemy.productapi.modules.produto.repository.IProductRepository;
+import br.com.cursoudemy.productapi.modules.search.enums.SearchDomain;
+import br.com.cursoudemy.productapi.modules.search.enums.SearchMode;
+import br.com.cursoudemy.productapi.modules.supplier.repository.ISupplierRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.micrometer.common.util.StringUtils.isBlank;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+
+    private static final Integer FIRST_PAGE = 0;
+
+    private final IProductRepository iProductRepository;
+
+    private final ICategoryRepository iCategoryRepository;
+
+    private final ISupplierRepository iSupplierRepository;
+
+    private final CursorPagination cursorPagination;
+
+    private final EntityManager entityManager;
+
+    private final Map<SearchDomain, TrigramIndex> indexes = new ConcurrentHashMap<>();
+
+    @Value("${app-config.search.mode}")
+    private SearchMode mode;
+
+    @Value("${app-config.search.min-similarity}")
+    private Double minSimilarity;
+
+    public List<Integer> search(SearchDomain domain, String query, Integer page, Integer size){
+        if(isBlank(query)){
+            throw new ValidationException("The search term should be informed.");
+        }
+        var pageSize = cursorPagination.resolveSize(size);
+        var offset = resolvePage(page) * pageSize;
+        if(SearchMode.PG_TRGM.equals(mode)){
+            return searchDatabase(domain, query.trim(), offset, pageSize);
+        }
+        return getIndex(domain).search(query, offset, pageSize, minSimilarity);
+    }
+
+    public void index(SearchDomain domain, Integer id, String text){
+        if(SearchMode.MEMORY.equals(mode)){
+            getIndex(domain).index(id, text);
+        }
+    }
+
+    public void remove(SearchDomain domain, Integer id){
+        if(SearchMode.MEMORY.equals(mode)){
+            getIndex(domain).remove(id);
+        }
+    }
+
+    // Full rebuilds also reconcile writes made by other instances of the service.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app-config.search.rebuild-interval}",
+               fixedDelayString = "${app-config.search.rebuild-interval}")
+    @Transactional(readOnly = true)
+    public void rebuildIndexes(){
+        if(!SearchMode.MEMORY.equals(mode)){
+            return;
+        }
+        var products = new TrigramIndex();
+        try(var stream = iProductRepository.streamAll()){
+            stream.forEach(product -> {
+                products.index(product.getId(), product.getName());
+                entityManager.detach(product);
+            });
+        }
+        var categories = new TrigramIndex();
+        try(var stream = iCategoryRepository.streamAll()){
+            stream.forEach(category -> categories.index(category.getId(), category.getDescription()));
+        }
+        var suppliers = new TrigramIndex();
+        try(var stream = iSupplierRepository.streamAll()){
+            stream.forEach(supplier -> suppliers.index(supplier.getId(), supplier.getName()));
+        }
+        indexes.put(SearchDomain.PRODUCT, products);
+        indexes.put(SearchDomain.CATEGORY, categories);
+        indexes.put(SearchDomain.SUPPLIER, suppliers);
+        log.info("Search indexes rebuilt: {} products, {} categories, {} suppliers.",
+                products.size(), categories.size(), suppliers.size());
+    }
+
+    private List<Integer> searchDatabase(SearchDomain domain, String query, Integer offset, Integer limit){
+        return switch (domain) {
+            case PRODUCT -> iProductRepository.searchIdsByName(query, limit, offset);
+            case CATEGORY -> iCategoryRepository.searchIdsByDescription(query, limit, offset);
+            case SUPPLIER -> iSupplierRepository.searchIdsByName(query, limit, offset);
+        };
+    }
+
+    private TrigramIndex getIndex(SearchDomain domain){
+        return indexes.computeIfAbsent(domain, key -> new TrigramIndex());
+    }
+
+    private Integer resolvePage(Integer page){
+        if(page == null){
+            return FIRST_PAGE;
+        }
+        if(page < FIRST_PAGE){
+            throw new ValidationException("The page should not be negative.");
+        }
+        return page;
+    }
+}
@@ -0,0 +1,119 @@
+package br.com.cursoudemy.productapi.modules.search.service;
+
+import java.text.Normalizer;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class TrigramIndex {
+
+    private static final Integer GRAM_SIZE = 3;
+    private static final String WORD_PREFIX = "  ";
+    private static final String WORD_SUFFIX = " ";
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Double CONTAINS_BOOST = 1.0;
+
+    private final Map<String, Set<Integer>> postings = new ConcurrentHashMap<>();
+    private final Map<Integer, IndexedText> texts = new ConcurrentHashMap<>();
+
+    public synchronized void index(Integer id, String text){
+        remove(id);
+        var normalized = normalize(text);
+        var grams = trigrams(normalized);
+        texts.put(id, new IndexedText(normalized, grams));
+        grams.forEach(gram -> postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id));
+    }
+
+    public synchronized void remove(Integer id){
+        var indexed = texts.remove(id);
+        if(indexed == null){
+            return;
+        }
+        indexed.grams().forEach(gram -> postings.computeIfPresent(gram, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        }));
+    }
+
+    public Integer size(){
+        return texts.size();
+    }
+
+    public List<Integer> search(String query, Integer offset, Integer limit, Double minSimilarity){
+        var normalized = normalize(query);
+        var queryGrams = trigrams(normalized);
+        var sharedGrams = new HashMap<Integer, Integer>();
+        queryGrams.forEach(gram -> postings
+                .getOrDefault(gram, Set.of())
+                .forEach(id -> sharedGrams.merge(id, 1, Integer::sum)));
+        if(normalized.length() < GRAM_SIZE){
+            texts.forEach((id, indexed) -> {
+                if(indexed.text().contains(normalized)){
+                    sharedGrams.putIfAbsent(id, 0);
+                }
+            });
+        }
+        return sharedGrams
+                .entrySet()
+                .stream()
+                .map(entry -> score(entry.getKey(), entry.getValue(), normalized, queryGrams.size()))
+                .filter(match -> match != null && (match.contains() || match.similarity() >= minSimilarity))
+                .sorted(Comparator
+                        .comparingDouble(ScoredMatch::score)
+                        .reversed()
+                        .thenComparing(ScoredMatch::id))
+                .skip(offset)
+                .limit(limit)
+                .map(ScoredMatch::id)
+                .collect(Collectors.toList());
+    }
+
+    // Jaccard similarity over trigrams, with exact substring matches ranked first.
+    private ScoredMatch score(Integer id, Integer shared, String normalizedQuery, Integer queryGrams){
+        var indexed = texts.get(id);
+        if(indexed == null){
+            return null;
+        }
+        var union = queryGrams + indexed.grams().size() - shared;
+        var similarity = union == 0 ? 0.0 : (double) shared / union;
+        var contains = indexed.text().contains(normalizedQuery);
+        return new ScoredMatch(id, similarity, contains, contains ? CONTAINS_BOOST + similarity : similarity);
+    }
+
+    private String normalize(String text){
+        var decomposed = Normalizer.normalize(text == null ? "" : text, Normalizer.Form.NFD);
+        return DIACRITICS
+                .matcher(decomposed)
+                .replaceAll("")
+                .toLowerCase()
+                .trim();
+    }
+
+    // Same padding as pg_trgm: every word is prefixed with two spaces and suffixed with one.
+    private Set<String> trigrams(String normalized){
+        var grams = new HashSet<String>();
+        for(var word : WORD_SEPARATOR.split(normalized)){
+            if(word.isEmpty()){
+                continue;
+            }
+            var padded = WORD_PREFIX + word + WORD_SUFFIX;
+            for(var index = 0; index + GRAM_SIZE <= padded.length(); index++){
+                grams.add(padded.substring(index, index + GRAM_SIZE));
+            }
+        }
+        return grams;
+    }
+
+    private record IndexedText(String text, Set<String> grams) {
+    }
+
+    private record ScoredMatch(Integer id, Double similarity, Boolean contains, Double score) {
+    }
+}
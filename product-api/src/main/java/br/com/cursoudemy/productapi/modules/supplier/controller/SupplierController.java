@@ -1,15 +1,19 @@
 package br.com.cursoudemy.productapi.modules.supplier.controller;
 
 import br.com.cursoudemy.productapi.config.exception.SuccessResponse;
+import br.com.cursoudemy.productapi.config.pagination.CursorPageResponse;
 import br.com.cursoudemy.productapi.modules.category.dto.request.CategoryRequest;
 import br.com.cursoudemy.productapi.modules.category.dto.response.CategoryResponse;
 import br.com.cursoudemy.productapi.modules.supplier.dto.request.SupplierRequest;
 import br.com.cursoudemy.productapi.modules.supplier.dto.response.SupplierResponse;
 import br.com.cursoudemy.productapi.modules.supplier.service.SupplierService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -25,8 +29,15 @@ public class SupplierController {
     }
 
     @GetMapping
-    public List<SupplierResponse> findAll(){
-        return supplierService.findAll();
+    public void findAll(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        supplierService.writeAll(response.getOutputStream());
+    }
+
+    @GetMapping("page")
+    public CursorPageResponse<SupplierResponse> findPage(@RequestParam(required = false) Integer after,
+                                                         @RequestParam(required = false) Integer size){
+        return supplierService.findPage(after, size);
     }
 
     @GetMapping("{id}")
@@ -35,8 +46,10 @@ public class SupplierController {
     }
 
     @GetMapping("name/{name}")
-    public List<SupplierResponse> findByName(@PathVariable String name){
-        return supplierService.findByName(name);
+    public List<SupplierResponse> findByName(@PathVariable String name,
+                                             @RequestParam(required = false) Integer page,
+                                             @RequestParam(required = false) Integer size){
+        return supplierService.findByName(name, page, size);
     }
 
     @DeleteMapping("{id}")
@@ -2,11 +2,29 @@ package br.com.cursoudemy.productapi.modules.supplier.repository;
 
 import br.com.cursoudemy.productapi.modules.category.model.Category;
 import br.com.cursoudemy.productapi.modules.supplier.model.Supplier;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ISupplierRepository extends JpaRepository<Supplier, Integer> {
 
-    List<Supplier> findByNameIgnoreCaseContaining(String name);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s FROM Supplier s ORDER BY s.id")
+    Stream<Supplier> streamAll();
+
+    @Query("SELECT s FROM Supplier s WHERE s.id > :after ORDER BY s.id")
+    List<Supplier> findPageAfter(@Param("after") Integer after, Pageable pageable);
+
+    @Query(value = "SELECT ID FROM SUPPLIER WHERE NAME ILIKE CONCAT('%', :query, '%') OR NAME % :query "
+            + "ORDER BY SIMILARITY(NAME, :query) DESC, ID LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Integer> searchIdsByName(@Param("query") String query,
+                                  @Param("limit") Integer limit,
+                                  @Param("offset") Integer offset);
 }
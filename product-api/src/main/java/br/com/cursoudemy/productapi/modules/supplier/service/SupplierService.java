@@ -1,18 +1,33 @@
 package br.com.cursoudemy.productapi.modules.supplier.service;
 
+import br.com.cursoudemy.productapi.config.cache.CacheConfig;
 import br.com.cursoudemy.productapi.config.exception.SuccessResponse;
 import br.com.cursoudemy.productapi.config.exception.ValidationException;
+import br.com.cursoudemy.productapi.config.pagination.CursorPageResponse;
+import br.com.cursoudemy.productapi.config.pagination.CursorPagination;
+import br.com.cursoudemy.productapi.config.pagination.JsonArrayStreamWriter;
+import br.com.cursoudemy.productapi.modules.produto.service.ProductResponseCache;
 import br.com.cursoudemy.productapi.modules.produto.service.ProductService;
+import br.com.cursoudemy.productapi.modules.search.enums.SearchDomain;
+import br.com.cursoudemy.productapi.modules.search.service.SearchService;
 import br.com.cursoudemy.productapi.modules.supplier.dto.request.SupplierRequest;
 import br.com.cursoudemy.productapi.modules.supplier.dto.response.SupplierResponse;
 import br.com.cursoudemy.productapi.modules.supplier.model.Supplier;
 import br.com.cursoudemy.productapi.modules.supplier.repository.ISupplierRepository;
+import jakarta.persistence.EntityManager;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static io.micrometer.common.util.StringUtils.isBlank;
@@ -23,9 +38,20 @@ public class SupplierService {
 
     private final ISupplierRepository iSupplierRepository;
 
+    private final CursorPagination cursorPagination;
+
+    private final JsonArrayStreamWriter jsonArrayStreamWriter;
+
+    private final EntityManager entityManager;
+
+    private final SearchService searchService;
+
+    private final ProductResponseCache productResponseCache;
+
     @Lazy
     private final ProductService productService;
 
+    @Cacheable(cacheNames = CacheConfig.SUPPLIERS, key = "#id")
     public Supplier findById(Integer id){
         validateInformedId(id);
         return iSupplierRepository
@@ -33,50 +59,78 @@ public class SupplierService {
                 .orElseThrow(() -> new ValidationException("There's no supplier for the given ID."));
     }
 
+    @Transactional(readOnly = true)
     public SupplierResponse findByIdResponse(Integer id){
         return SupplierResponse.of(findById(id));
     }
 
-    public List<SupplierResponse> findByName(String name){
+    @Transactional(readOnly = true)
+    public List<SupplierResponse> findByName(String name, Integer page, Integer size){
         if (isBlank(name)){
             throw new ValidationException("The supplier name should be informed.");
         }
-        return iSupplierRepository
-                .findByNameIgnoreCaseContaining(name)
+        var ids = searchService.search(SearchDomain.SUPPLIER, name, page, size);
+        var suppliers = iSupplierRepository
+                .findAllById(ids)
                 .stream()
+                .collect(Collectors.toMap(Supplier::getId, Function.identity()));
+        return ids
+                .stream()
+                .map(suppliers::get)
+                .filter(Objects::nonNull)
                 .map(SupplierResponse::of)
                 .collect(Collectors.toList());
     }
 
-    public List<SupplierResponse> findAll(){
-        return iSupplierRepository
-                .findAll()
+    @Transactional(readOnly = true)
+    public void writeAll(OutputStream outputStream) throws IOException {
+        try(var suppliers = iSupplierRepository.streamAll()){
+            jsonArrayStreamWriter.write(outputStream, suppliers.map(supplier -> {
+                var response = SupplierResponse.of(supplier);
+                entityManager.detach(supplier);
+                return response;
+            }));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<SupplierResponse> findPage(Integer after, Integer size){
+        var pageSize = cursorPagination.resolveSize(size);
+        var suppliers = iSupplierRepository
+                .findPageAfter(cursorPagination.resolveCursor(after), cursorPagination.limit(pageSize))
                 .stream()
                 .map(SupplierResponse::of)
                 .collect(Collectors.toList());
+        return CursorPageResponse.of(suppliers, pageSize, SupplierResponse::getId);
     }
 
     public SupplierResponse save(SupplierRequest request){
         validateSupplierNameInformed(request);
         var supplier = iSupplierRepository.save(Supplier.of(request));
+        searchService.index(SearchDomain.SUPPLIER, supplier.getId(), supplier.getName());
         return SupplierResponse.of(supplier);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.SUPPLIERS, key = "#id")
     public SupplierResponse update(SupplierRequest request, Integer id){
         validateSupplierNameInformed(request);
         validateInformedId(id);
         var supplier = Supplier.of(request);
         supplier.setId(id);
         iSupplierRepository.save(supplier);
+        searchService.index(SearchDomain.SUPPLIER, id, supplier.getName());
+        productResponseCache.evictSupplier(id);
         return SupplierResponse.of(supplier);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.SUPPLIERS, key = "#id")
     public SuccessResponse delete(Integer id){
         validateInformedId(id);
         if(productService.existsBySupplierId(id)){
             throw new ValidationException("You cannot delete this supplier because its already defined by a product.");
         }
         iSupplierRepository.deleteById(id);
+        searchService.remove(SearchDomain.SUPPLIER, id);
         return SuccessResponse.create("This supplier was deleted.");
     }
 
@@ -5,6 +5,11 @@ INSERT INTO CATEGORY (ID, DESCRIPTION) VALUES (1003, 'Books');
 INSERT INTO SUPPLIER (ID, NAME) VALUES (1001, 'Panini Comics');
 INSERT INTO SUPPLIER (ID, NAME) VALUES (1002, 'Amazon');
 
-INSERT INTO PRODUCT (ID, NAME, FK_SUPPLIER, FK_CATEGORY, QUANTITY_AVAILABLE, CREATED_AT) VALUES (1001, '1984', 1001, 1001, 10, CURRENT_TIMESTAMP);
-INSERT INTO PRODUCT (ID, NAME, FK_SUPPLIER, FK_CATEGORY, QUANTITY_AVAILABLE, CREATED_AT) VALUES (1002, 'Interestelar', 1002, 1002, 5, CURRENT_TIMESTAMP);
-INSERT INTO PRODUCT (ID, NAME, FK_SUPPLIER, FK_CATEGORY, QUANTITY_AVAILABLE, CREATED_AT) VALUES (1003, 'Harry Potter', 1002, 1003, 3, CURRENT_TIMESTAMP);
\ No newline at end of file
+INSERT INTO PRODUCT (ID, NAME, FK_SUPPLIER, FK_CATEGORY, QUANTITY_AVAILABLE, VERSION, CREATED_AT) VALUES (1001, '1984', 1001, 1001, 10, 0, CURRENT_TIMESTAMP);
+INSERT INTO PRODUCT (ID, NAME, FK_SUPPLIER, FK_CATEGORY, QUANTITY_AVAILABLE, VERSION, CREATED_AT) VALUES (1002, 'Interestelar', 1002, 1002, 5, 0, CURRENT_TIMESTAMP);
+INSERT INTO PRODUCT (ID, NAME, FK_SUPPLIER, FK_CATEGORY, QUANTITY_AVAILABLE, VERSION, CREATED_AT) VALUES (1003, 'Harry Potter', 1002, 1003, 3, 0, CURRENT_TIMESTAMP);
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS IDX_PRODUCT_NAME_TRGM ON PRODUCT USING GIN (NAME gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS IDX_CATEGORY_DESCRIPTION_TRGM ON CATEGORY USING GIN (DESCRIPTION gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS IDX_SUPPLIER_NAME_TRGM ON SUPPLIER USING GIN (NAME gin_trgm_ops);
\ No newline at end of file
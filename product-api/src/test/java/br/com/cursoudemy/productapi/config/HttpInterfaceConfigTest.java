@@ -0,0 +1,155 @@
+package br.com.cursoudemy.productapi.config;
+
+import br.com.cursoudemy.productapi.modules.sales.client.SalesClient;
+import io.netty.channel.ConnectTimeoutException;
+import io.netty.handler.timeout.ReadTimeoutException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Builds the sales-api client the way HttpInterfaceConfig wires it and points it at a stub HTTP server.
+class HttpInterfaceConfigTest {
+
+    private static final String SALES_JSON = "{\"salesIds\":[\"sales-1\"]}";
+    private static final String AUTHORIZATION = "Bearer token";
+    private static final String TRANSACTION_ID = "transaction";
+    private static final int CONNECT_TIMEOUT = 300;
+    private static final long READ_TIMEOUT = 500;
+
+    private final List<Socket> backlog = new ArrayList<>();
+
+    private MockWebServer server;
+
+    private ConnectionProvider connectionProvider;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if(connectionProvider != null){
+            connectionProvider.dispose();
+        }
+        for(var socket : backlog){
+            socket.close();
+        }
+        server.shutdown();
+    }
+
+    @Test
+    void aResponseSlowerThanTheReadTimeoutFailsTheCall(){
+        server.enqueue(salesResponse().setHeadersDelay(READ_TIMEOUT * 4, TimeUnit.MILLISECONDS));
+        var salesClient = salesClient(baseUrl());
+
+        var startedAt = System.currentTimeMillis();
+        assertThatThrownBy(() -> salesClient.findSalesByProductIdAsync(1, AUTHORIZATION, TRANSACTION_ID).block())
+                .isInstanceOf(WebClientRequestException.class)
+                .hasRootCauseInstanceOf(ReadTimeoutException.class);
+        assertThat(System.currentTimeMillis() - startedAt).isLessThan(READ_TIMEOUT * 4);
+    }
+
+    @Test
+    void aResponseWithinTheReadTimeoutIsRead(){
+        server.enqueue(salesResponse().setHeadersDelay(READ_TIMEOUT / 5, TimeUnit.MILLISECONDS));
+        var salesClient = salesClient(baseUrl());
+
+        var response = salesClient.findSalesByProductId(1, AUTHORIZATION, TRANSACTION_ID);
+
+        assertThat(response).hasValueSatisfying(sales -> assertThat(sales.getSalesId()).containsExactly("sales-1"));
+    }
+
+    // A listening socket whose accept backlog is full drops new SYNs, so the connect can only end by timing out.
+    @Test
+    void aConnectionThatIsNeverAcceptedFailsWithinTheConnectTimeout() throws IOException {
+        try(var serverSocket = new ServerSocket(0, 1)){
+            var address = new InetSocketAddress("127.0.0.1", serverSocket.getLocalPort());
+            fillBacklog(address);
+            var salesClient = salesClient("http://127.0.0.1:" + address.getPort());
+
+            var startedAt = System.currentTimeMillis();
+            assertThatThrownBy(() -> salesClient.findSalesByProductIdAsync(1, AUTHORIZATION, TRANSACTION_ID).block())
+                    .isInstanceOf(WebClientRequestException.class)
+                    .hasRootCauseInstanceOf(ConnectTimeoutException.class);
+            assertThat(System.currentTimeMillis() - startedAt).isLessThan(READ_TIMEOUT * 4);
+        }
+    }
+
+    @Test
+    void sequentialCallsReuseThePooledConnection() throws InterruptedException {
+        var calls = 5;
+        for(var call = 0; call < calls; call++){
+            server.enqueue(salesResponse());
+        }
+        var salesClient = salesClient(baseUrl());
+
+        for(var call = 0; call < calls; call++){
+            assertThat(salesClient.findSalesByProductIdAsync(call, AUTHORIZATION, TRANSACTION_ID).block()).isNotNull();
+        }
+
+        for(var call = 0; call < calls; call++){
+            var request = server.takeRequest();
+            assertThat(request.getPath()).isEqualTo("/api/orders/product/" + call);
+            assertThat(request.getHeader(HttpHeaders.AUTHORIZATION)).isEqualTo(AUTHORIZATION);
+            assertThat(request.getSequenceNumber()).isEqualTo(call);
+        }
+    }
+
+    private SalesClient salesClient(String baseUrl){
+        var config = new HttpInterfaceConfig();
+        ReflectionTestUtils.setField(config, "baseUrl", baseUrl);
+        ReflectionTestUtils.setField(config, "maxConnections", 2);
+        ReflectionTestUtils.setField(config, "pendingAcquireMaxCount", 10);
+        ReflectionTestUtils.setField(config, "pendingAcquireTimeout", 1000L);
+        ReflectionTestUtils.setField(config, "maxIdleTime", 30000L);
+        ReflectionTestUtils.setField(config, "connectTimeout", CONNECT_TIMEOUT);
+        ReflectionTestUtils.setField(config, "readTimeout", READ_TIMEOUT);
+        connectionProvider = config.salesConnectionProvider();
+        return config.salesClient(config.salesWebClient(WebClient.builder(), connectionProvider));
+    }
+
+    private void fillBacklog(InetSocketAddress address) throws IOException {
+        while(backlog.size() < 64){
+            var socket = new Socket();
+            backlog.add(socket);
+            try{
+                socket.connect(address, CONNECT_TIMEOUT);
+            } catch (SocketTimeoutException ex){
+                return;
+            }
+        }
+        throw new IllegalStateException("The accept backlog never filled up.");
+    }
+
+    private String baseUrl(){
+        return "http://" + server.getHostName() + ":" + server.getPort();
+    }
+
+    private MockResponse salesResponse(){
+        return new MockResponse()
+                .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .setBody(SALES_JSON);
+    }
+}
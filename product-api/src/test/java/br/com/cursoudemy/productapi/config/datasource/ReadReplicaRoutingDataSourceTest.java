@@ -0,0 +1,133 @@
+package br.com.cursoudemy.productapi.config.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two in-memory H2 databases stand in for the primary and the replica; each one names itself in a NODE table.
+class ReadReplicaRoutingDataSourceTest {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+    private static final String WHO_ANSWERS = "SELECT NAME FROM NODE";
+    private static final String LAG_QUERY = "SELECT LAG_MS FROM REPLICA_LAG";
+    private static final Long MAX_LAG = 1000L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private JdbcTemplate primaryJdbcTemplate;
+
+    private JdbcTemplate replicaJdbcTemplate;
+
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private TransactionTemplate readWriteTransaction;
+
+    @BeforeEach
+    void setUp(){
+        var primary = h2(PRIMARY);
+        var replica = h2(REPLICA);
+        primaryJdbcTemplate = node(primary, PRIMARY);
+        replicaJdbcTemplate = node(replica, REPLICA);
+        replicaJdbcTemplate.execute("CREATE TABLE REPLICA_LAG (LAG_MS BIGINT)");
+        replicaJdbcTemplate.update("INSERT INTO REPLICA_LAG VALUES (0)");
+        replicaLagMonitor = new ReplicaLagMonitor(replica, LAG_QUERY, MAX_LAG, meterRegistry);
+        replicaLagMonitor.checkLag();
+        var dataSource = new DataSourceConfig().dataSource(primary, replica, replicaLagMonitor, meterRegistry);
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown(){
+        primaryJdbcTemplate.execute("SHUTDOWN");
+        replicaJdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica(){
+        assertThat(readOnlyTransaction.execute(status -> whoAnswers())).isEqualTo(REPLICA);
+        assertThat(routed(REPLICA)).isEqualTo(1.0);
+    }
+
+    @Test
+    void forcedReadsGoToThePrimaryInsideAReadOnlyTransaction(){
+        assertThat(readOnlyTransaction.execute(status -> PrimaryReads.call(this::whoAnswers))).isEqualTo(PRIMARY);
+        assertThat(readOnlyTransaction.execute(status -> whoAnswers())).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void writesGoToThePrimary(){
+        readWriteTransaction.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO NODE VALUES ('written')"));
+
+        assertThat(primaryJdbcTemplate.queryForObject("SELECT COUNT(*) FROM NODE", Integer.class)).isEqualTo(2);
+        assertThat(replicaJdbcTemplate.queryForObject("SELECT COUNT(*) FROM NODE", Integer.class)).isEqualTo(1);
+        assertThat(readWriteTransaction.execute(status -> whoAnswers())).isEqualTo(PRIMARY);
+    }
+
+    @Test
+    void statementsOutsideATransactionGoToThePrimary(){
+        assertThat(whoAnswers()).isEqualTo(PRIMARY);
+        assertThat(routed(REPLICA)).isZero();
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaLags(){
+        replicaJdbcTemplate.update("UPDATE REPLICA_LAG SET LAG_MS = ?", MAX_LAG + 1);
+        replicaLagMonitor.checkLag();
+
+        assertThat(replicaLagMonitor.isAvailable()).isFalse();
+        assertThat(readOnlyTransaction.execute(status -> whoAnswers())).isEqualTo(PRIMARY);
+
+        replicaJdbcTemplate.update("UPDATE REPLICA_LAG SET LAG_MS = ?", MAX_LAG);
+        replicaLagMonitor.checkLag();
+
+        assertThat(replicaLagMonitor.isAvailable()).isTrue();
+        assertThat(readOnlyTransaction.execute(status -> whoAnswers())).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenTheLagCheckFails(){
+        replicaJdbcTemplate.execute("DROP TABLE REPLICA_LAG");
+        replicaLagMonitor.checkLag();
+
+        assertThat(replicaLagMonitor.isAvailable()).isFalse();
+        assertThat(readOnlyTransaction.execute(status -> whoAnswers())).isEqualTo(PRIMARY);
+        assertThat(meterRegistry.get("datasource.replica.lag").gauge().value()).isEqualTo(-1.0);
+    }
+
+    private String whoAnswers(){
+        return jdbcTemplate.queryForObject(WHO_ANSWERS, String.class);
+    }
+
+    private double routed(String target){
+        return meterRegistry.counter("datasource.routing", "target", target).count();
+    }
+
+    private DataSource h2(String name){
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private JdbcTemplate node(DataSource dataSource, String name){
+        var nodeJdbcTemplate = new JdbcTemplate(dataSource);
+        nodeJdbcTemplate.execute("CREATE TABLE NODE (NAME VARCHAR(20))");
+        nodeJdbcTemplate.update("INSERT INTO NODE VALUES (?)", name);
+        return nodeJdbcTemplate;
+    }
+}
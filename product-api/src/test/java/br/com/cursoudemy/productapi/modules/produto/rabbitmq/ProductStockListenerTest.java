@@ -0,0 +1,243 @@
+package br.com.cursoudemy.productapi.modules.produto.rabbitmq;
+
+import br.com.cursoudemy.productapi.config.logging.LogSampler;
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductQuantityDTO;
+import br.com.cursoudemy.productapi.modules.produto.dto.rabbitmq.ProductStockDTO;
+import br.com.cursoudemy.productapi.modules.produto.service.ProductService;
+import br.com.cursoudemy.productapi.modules.sales.dto.SalesConfirmationDTO;
+import br.com.cursoudemy.productapi.modules.sales.enums.SalesStatus;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Drives the batch listener with a broker stand-in that tracks unacked deliveries and requeues nacked ones as
+// redelivered, the way RabbitMQ does for a MANUAL ack container.
+class ProductStockListenerTest {
+
+    private static final int MESSAGES = 10000;
+    private static final int BATCH_SIZE = 50;
+    private static final int CONSUMERS = 4;
+    private static final int POISON_EVERY = 97;
+
+    private final Set<String> failedOnce = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+
+    private BrokerStandIn broker;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ProductStockListener listener;
+
+    @BeforeEach
+    void setUp(){
+        broker = new BrokerStandIn();
+        meterRegistry = new SimpleMeterRegistry();
+        var productService = mock(ProductService.class);
+        when(productService.reserveProductsStock(any())).thenAnswer(invocation -> {
+            List<ProductStockDTO> batch = invocation.getArgument(0);
+            if(batch.stream().anyMatch(message -> isPoison(message.getSalesId()))){
+                throw new IllegalStateException("A message in the batch could not be reserved.");
+            }
+            return batch
+                    .stream()
+                    .map(message -> confirmation(message, SalesStatus.APPROVED))
+                    .collect(Collectors.toList());
+        });
+        when(productService.reserveProductStock(any())).thenAnswer(invocation -> {
+            ProductStockDTO message = invocation.getArgument(0);
+            if(isPoison(message.getSalesId()) && (isPermanent(message.getSalesId()) || failedOnce.add(message.getSalesId()))){
+                throw new IllegalStateException("The message could not be reserved.");
+            }
+            return confirmation(message, SalesStatus.APPROVED);
+        });
+        when(productService.rejectProductStock(any())).thenAnswer(invocation -> {
+            ProductStockDTO message = invocation.getArgument(0);
+            rejected.add(message.getSalesId());
+            return confirmation(message, SalesStatus.REJECTED);
+        });
+        listener = new ProductStockListener(productService, new LogSampler(0.0, Map.of()), meterRegistry);
+    }
+
+    @Test
+    void everyMessageIsSettledOnceUnderConcurrentBatches() throws Exception {
+        IntStream.range(0, MESSAGES).forEach(index -> broker.publish(salesId(index)));
+        var executor = Executors.newFixedThreadPool(CONSUMERS);
+        var consumers = new ArrayList<Future<?>>();
+        for(var consumer = 0; consumer < CONSUMERS; consumer++){
+            consumers.add(executor.submit(() -> {
+                var channel = broker.channel();
+                while(!broker.isDrained()){
+                    var batch = broker.fetch(BATCH_SIZE);
+                    if(batch.isEmpty()){
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    listener.receiveProductStockMessages(batch, channel);
+                }
+                return null;
+            }));
+        }
+        executor.shutdown();
+        for(var consumer : consumers){
+            consumer.get(60, TimeUnit.SECONDS);
+        }
+
+        var poison = IntStream.range(0, MESSAGES).mapToObj(this::salesId).filter(this::isPoison).collect(Collectors.toSet());
+        var permanent = poison.stream().filter(this::isPermanent).collect(Collectors.toSet());
+        assertThat(broker.settlementErrors).hasValue(0);
+        assertThat(broker.acks).hasSize(MESSAGES);
+        assertThat(broker.acks.values()).allMatch(acks -> acks.get() == 1);
+        assertThat(broker.requeued).containsExactlyInAnyOrderElementsOf(poison);
+        assertThat(rejected).containsExactlyInAnyOrderElementsOf(permanent);
+        assertThat(meterRegistry.counter("product.stock.messages", "outcome", "REQUEUED").count()).isEqualTo((double) poison.size());
+        assertThat(meterRegistry.counter("product.stock.messages", "outcome", "REJECTED").count()).isEqualTo((double) permanent.size());
+        assertThat(meterRegistry.counter("product.stock.messages", "outcome", "APPROVED").count())
+                .isEqualTo((double) (MESSAGES - permanent.size()));
+    }
+
+    @Test
+    void aFailedBatchIsRetriedOneByOneAndOnlyThePoisonIsRequeued() throws Exception {
+        IntStream.range(0, BATCH_SIZE).forEach(index -> broker.publish(salesId(index)));
+        var channel = broker.channel();
+
+        listener.receiveProductStockMessages(broker.fetch(BATCH_SIZE), channel);
+
+        assertThat(broker.acks).hasSize(BATCH_SIZE - 1).doesNotContainKey(salesId(0));
+        assertThat(broker.requeued).containsExactly(salesId(0));
+
+        listener.receiveProductStockMessages(broker.fetch(BATCH_SIZE), channel);
+
+        assertThat(broker.acks).hasSize(BATCH_SIZE).containsKey(salesId(0));
+        assertThat(rejected).containsExactly(salesId(0));
+        assertThat(broker.isDrained()).isTrue();
+    }
+
+    private boolean isPoison(String salesId){
+        return indexOf(salesId) % POISON_EVERY == 0;
+    }
+
+    // Half of the poison fails on redelivery too and ends rejected; the other half goes through the second time.
+    private boolean isPermanent(String salesId){
+        return indexOf(salesId) % 2 == 0;
+    }
+
+    private String salesId(int index){
+        return "sales-" + index;
+    }
+
+    private int indexOf(String salesId){
+        return Integer.parseInt(salesId.substring("sales-".length()));
+    }
+
+    private SalesConfirmationDTO confirmation(ProductStockDTO message, SalesStatus status){
+        return new SalesConfirmationDTO(message.getSalesId(), status, message.getTransactionid());
+    }
+
+    private static class BrokerStandIn {
+
+        private final ConcurrentLinkedQueue<Message<ProductStockDTO>> ready = new ConcurrentLinkedQueue<>();
+
+        private final Map<Long, Message<ProductStockDTO>> unacked = new ConcurrentHashMap<>();
+
+        private final AtomicLong deliveryTags = new AtomicLong();
+
+        private final Map<String, AtomicInteger> acks = new ConcurrentHashMap<>();
+
+        private final Set<String> requeued = ConcurrentHashMap.newKeySet();
+
+        private final AtomicInteger settlementErrors = new AtomicInteger();
+
+        private void publish(String salesId){
+            var payload = new ProductStockDTO(salesId, List.of(new ProductQuantityDTO(1, 1)), salesId + "-transaction");
+            ready.add(MessageBuilder.withPayload(payload).setHeader(AmqpHeaders.REDELIVERED, false).build());
+        }
+
+        // Unacked deliveries are counted before they leave the ready queue, so a consumer never sees the broker
+        // drained while another one still holds a batch.
+        private synchronized List<Message<ProductStockDTO>> fetch(int batchSize){
+            var batch = new ArrayList<Message<ProductStockDTO>>(batchSize);
+            Message<ProductStockDTO> message;
+            while(batch.size() < batchSize && (message = ready.peek()) != null){
+                var deliveryTag = deliveryTags.incrementAndGet();
+                var delivery = MessageBuilder
+                        .fromMessage(message)
+                        .setHeader(AmqpHeaders.DELIVERY_TAG, deliveryTag)
+                        .build();
+                unacked.put(deliveryTag, delivery);
+                ready.poll();
+                batch.add(delivery);
+            }
+            return batch;
+        }
+
+        private synchronized boolean isDrained(){
+            return ready.isEmpty() && unacked.isEmpty();
+        }
+
+        private Channel channel() throws Exception {
+            var channel = mock(Channel.class);
+            doAnswer(invocation -> {
+                ack(invocation.getArgument(0));
+                return null;
+            }).when(channel).basicAck(anyLong(), anyBoolean());
+            doAnswer(invocation -> {
+                nack(invocation.getArgument(0), invocation.getArgument(2));
+                return null;
+            }).when(channel).basicNack(anyLong(), anyBoolean(), anyBoolean());
+            return channel;
+        }
+
+        private void ack(long deliveryTag){
+            var delivery = unacked.get(deliveryTag);
+            if(delivery == null){
+                settlementErrors.incrementAndGet();
+                return;
+            }
+            acks.computeIfAbsent(delivery.getPayload().getSalesId(), ignored -> new AtomicInteger()).incrementAndGet();
+            unacked.remove(deliveryTag);
+        }
+
+        private void nack(long deliveryTag, boolean requeue){
+            var delivery = unacked.get(deliveryTag);
+            if(delivery == null){
+                settlementErrors.incrementAndGet();
+                return;
+            }
+            if(requeue){
+                requeued.add(delivery.getPayload().getSalesId());
+                ready.add(MessageBuilder
+                        .withPayload(delivery.getPayload())
+                        .setHeader(AmqpHeaders.REDELIVERED, true)
+                        .build());
+            }
+            unacked.remove(deliveryTag);
+        }
+    }
+}
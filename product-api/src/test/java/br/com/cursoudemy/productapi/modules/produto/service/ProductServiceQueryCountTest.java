@@ -0,0 +1,87 @@
+package br.com.cursoudemy.productapi.modules.produto.service;
+
+import br.com.cursoudemy.productapi.config.metrics.QueryDiagnostics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// N+1 guard: product lists render every category and supplier, yet must cost a fixed number of statements however
+// many products they hold. Counted through the datasource-proxy listener behind QueryDiagnostics. test-import.sql
+// spreads the products over every category and supplier, so a lazy association loaded per row would show up.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-query-count;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.hbm2ddl.import_files=test-import.sql",
+        "app-config.rabbit.listener.auto-startup=false",
+        "app-config.outbox.sales-confirmation.relay-enabled=false",
+        "app-config.sales-projection.enabled=false",
+        "app-config.product-response-cache.enabled=false"
+})
+class ProductServiceQueryCountTest {
+
+    private static final int PRODUCTS = 200;
+    private static final String LAST_PRODUCT = "\"Listed product " + (PRODUCTS - 1) + "\"";
+    private static final int MAX_QUERIES = 2;
+    private static final Integer SUPPLIER_ID = 1001;
+    private static final Integer CATEGORY_ID = 1002;
+
+    @Autowired
+    private ProductService productService;
+
+    @AfterEach
+    void finish(){
+        QueryDiagnostics.finish();
+    }
+
+    @Test
+    void findAllRunsAFixedNumberOfQueries() throws IOException {
+        var body = new ByteArrayOutputStream();
+        var diagnostics = QueryDiagnostics.start("findAll");
+
+        productService.writeAll(body);
+
+        assertThat(body.toString()).contains(LAST_PRODUCT);
+        assertBounded(diagnostics);
+    }
+
+    @Test
+    void findBySupplierIdRunsAFixedNumberOfQueries(){
+        var diagnostics = QueryDiagnostics.start("findBySupplierId");
+
+        assertThat(productService.findBySupplierId(SUPPLIER_ID)).hasSizeGreaterThanOrEqualTo(PRODUCTS / 2);
+        assertBounded(diagnostics);
+    }
+
+    @Test
+    void findByCategoryIdRunsAFixedNumberOfQueries(){
+        var diagnostics = QueryDiagnostics.start("findByCategoryId");
+
+        assertThat(productService.findByCategoryId(CATEGORY_ID)).hasSizeGreaterThanOrEqualTo(PRODUCTS / 3);
+        assertBounded(diagnostics);
+    }
+
+    @Test
+    void findPageRunsAFixedNumberOfQueries(){
+        var diagnostics = QueryDiagnostics.start("findPage");
+
+        assertThat(productService.findPage(null, 100).getContent()).hasSize(100);
+        assertBounded(diagnostics);
+    }
+
+    private void assertBounded(QueryDiagnostics diagnostics){
+        assertThat(diagnostics.getCount())
+                .as("statements executed: %s", diagnostics.getStatements())
+                .isPositive()
+                .isLessThanOrEqualTo(MAX_QUERIES);
+        assertThat(diagnostics.getStatements().values()).allMatch(executions -> executions == 1);
+    }
+}
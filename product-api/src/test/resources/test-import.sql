@@ -0,0 +1,8 @@
+INSERT INTO CATEGORY (ID, DESCRIPTION) VALUES (1001, 'Comic books');
+INSERT INTO CATEGORY (ID, DESCRIPTION) VALUES (1002, 'Movies');
+INSERT INTO CATEGORY (ID, DESCRIPTION) VALUES (1003, 'Books');
+
+INSERT INTO SUPPLIER (ID, NAME) VALUES (1001, 'Panini Comics');
+INSERT INTO SUPPLIER (ID, NAME) VALUES (1002, 'Amazon');
+
+INSERT INTO PRODUCT (ID, NAME, FK_SUPPLIER, FK_CATEGORY, QUANTITY_AVAILABLE, VERSION, CREATED_AT) SELECT 2000 + X, 'Listed product ' || X, 1001 + MOD(X, 2), 1001 + MOD(X, 3), 100, 0, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(0, 199);